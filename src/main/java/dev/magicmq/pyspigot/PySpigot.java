@@ -25,6 +25,7 @@ import dev.magicmq.pyspigot.manager.database.DatabaseManager;
 import dev.magicmq.pyspigot.manager.libraries.LibraryManager;
 import dev.magicmq.pyspigot.manager.listener.ListenerManager;
 import dev.magicmq.pyspigot.manager.placeholder.PlaceholderManager;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.protocol.ProtocolManager;
 import dev.magicmq.pyspigot.manager.redis.RedisManager;
 import dev.magicmq.pyspigot.manager.script.GlobalVariables;
@@ -135,6 +136,7 @@ public class PySpigot extends JavaPlugin {
         }
 
         LibraryManager.get();
+        ProfileManager.get();
         script = ScriptManager.get();
         global_vars = GlobalVariables.get();
         listener = ListenerManager.get();
@@ -171,6 +173,8 @@ public class PySpigot extends JavaPlugin {
     public void onDisable() {
         ScriptManager.get().shutdown();
 
+        ProfileManager.get().shutdown();
+
         LibraryManager.get().shutdown();
 
         if (metrics != null)
@@ -187,6 +191,7 @@ public class PySpigot extends JavaPlugin {
         reloadConfig();
         PluginConfig.reload();
         ScriptOptionsConfig.reload();
+        ProfileManager.get().reload();
     }
 
     /**
@@ -49,6 +49,10 @@ public class PySpigotCommand implements TabExecutor {
         subCommands.add(new HelpCommand());
         subCommands.add(new ReloadAllCommand());
         subCommands.add(new InfoCommand());
+        subCommands.add(new ProfileCommand());
+        subCommands.add(new SamplerCommand());
+        subCommands.add(new MemoryCommand());
+        subCommands.add(new LoadTimesCommand());
         subCommands.sort((o1, o2) -> {
             SubCommandMeta subCommandMeta1 = o1.getClass().getAnnotation(SubCommandMeta.class);
             SubCommandMeta subCommandMeta2 = o2.getClass().getAnnotation(SubCommandMeta.class);
@@ -27,6 +27,7 @@ import dev.magicmq.pyspigot.manager.listener.ListenerManager;
 import dev.magicmq.pyspigot.manager.listener.ScriptEventListener;
 import dev.magicmq.pyspigot.manager.placeholder.PlaceholderManager;
 import dev.magicmq.pyspigot.manager.placeholder.ScriptPlaceholder;
+import dev.magicmq.pyspigot.manager.profile.MemoryEstimate;
 import dev.magicmq.pyspigot.manager.protocol.ProtocolManager;
 import dev.magicmq.pyspigot.manager.protocol.ScriptPacketListener;
 import dev.magicmq.pyspigot.manager.redis.RedisManager;
@@ -34,6 +35,7 @@ import dev.magicmq.pyspigot.manager.redis.client.ScriptRedisClient;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import dev.magicmq.pyspigot.manager.script.ScriptOptions;
+import dev.magicmq.pyspigot.manager.task.AsyncCpuQuota;
 import dev.magicmq.pyspigot.manager.task.Task;
 import dev.magicmq.pyspigot.manager.task.TaskManager;
 import dev.magicmq.pyspigot.util.StringUtils;
@@ -69,6 +71,17 @@ public class InfoCommand implements SubCommand {
                     Duration uptime = Duration.ofMillis(script.getUptime());
                     builder.append(ChatColor.GOLD + "Uptime: " + ChatColor.RESET + StringUtils.formatDuration(uptime) + "\n");
 
+                    MemoryEstimate memoryEstimate = script.getProfile() != null ? script.getProfile().getMemoryEstimate() : null;
+                    if (memoryEstimate != null) {
+                        Duration age = Duration.ofMillis(System.currentTimeMillis() - memoryEstimate.getTimestamp());
+                        builder.append(ChatColor.GOLD + "Estimated memory: " + ChatColor.RESET + memoryEstimate + " (" + StringUtils.formatDuration(age) + " ago)" + "\n");
+                    } else
+                        builder.append(ChatColor.GOLD + "Estimated memory: " + ChatColor.RESET + "Not estimated yet, use /pyspigot memory " + script.getName() + "\n");
+
+                    AsyncCpuQuota cpuQuota = TaskManager.get().getCpuQuota(script);
+                    if (cpuQuota != null)
+                        builder.append(ChatColor.GOLD + "Async CPU quota: " + ChatColor.RESET + cpuQuota + "\n");
+
                     List<ScriptCommand> registeredCommands = CommandManager.get().getCommands(script);
                     List<String> commandNames = new ArrayList<>();
                     if (registeredCommands != null)
@@ -23,7 +23,6 @@ import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,22 +40,25 @@ public class LoadCommand implements SubCommand {
         if (args.length > 0) {
             if (args[0].endsWith(".py")) {
                 if (!ScriptManager.get().isScriptRunning(args[0])) {
-                    try {
-                        RunResult result = ScriptManager.get().loadScript(args[0]);
-                        if (result == RunResult.SUCCESS)
+                    ScriptManager.get().loadScriptAsync(args[0]).whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            throwable.printStackTrace();
+                            sender.sendMessage(ChatColor.RED + "There was an error when loading script '" + args[0] + "'. See console for details.");
+                        } else if (result == RunResult.SUCCESS)
                             sender.sendMessage(ChatColor.GREEN + "Successfully loaded and ran script '" + args[0] + "'.");
                         else if (result == RunResult.FAIL_PLUGIN_DEPENDENCY)
                             sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' was not run due to missing plugin dependencies. See console for details.");
+                        else if (result == RunResult.FAIL_SCRIPT_DEPENDENCY)
+                            sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' was not run because scripts it depends on are not loaded. See console for details.");
                         else if (result == RunResult.FAIL_DISABLED)
                             sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' was not run because it is disabled as per its options in script_options.yml.");
                         else if (result == RunResult.FAIL_ERROR)
                             sender.sendMessage(ChatColor.RED + "There was an error when running script '" + args[0] + "'. See console for details.");
+                        else if (result == RunResult.FAIL_DUPLICATE)
+                            sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' is already being loaded.");
                         else if (result == RunResult.FAIL_SCRIPT_NOT_FOUND)
                             sender.sendMessage(ChatColor.RED + "No script found in the scripts folder with the name '" + args[0] + "'.");
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                        sender.sendMessage(ChatColor.RED + "There was an error when loading script '" + args[0] + "'. See console for details.");
-                    }
+                    });
                 } else {
                     sender.sendMessage(ChatColor.RED + "There is already a loaded and running script with the name '" + args[0] + "'.");
                 }
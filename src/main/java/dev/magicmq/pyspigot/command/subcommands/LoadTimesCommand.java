@@ -0,0 +1,94 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.command.subcommands;
+
+import dev.magicmq.pyspigot.command.SubCommand;
+import dev.magicmq.pyspigot.command.SubCommandMeta;
+import dev.magicmq.pyspigot.manager.script.LoadPhase;
+import dev.magicmq.pyspigot.manager.script.LoadReport;
+import dev.magicmq.pyspigot.manager.script.LoadTimings;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+@SubCommandMeta(
+        command = "loadtimes",
+        permission = "pyspigot.command.loadtimes",
+        description = "Print the time scripts spent in each phase of loading, from the last time all scripts were loaded",
+        usage = "[scriptname]"
+)
+public class LoadTimesCommand implements SubCommand {
+
+    @Override
+    public boolean onCommand(CommandSender sender, String[] args) {
+        if (args.length > 0) {
+            Script script = ScriptManager.get().getScript(args[0]);
+            if (script == null) {
+                sender.sendMessage(ChatColor.RED + "No running script found with the name '" + args[0] + "'.");
+                return true;
+            }
+
+            LoadTimings timings = script.getLoadTimings();
+            StringBuilder builder = new StringBuilder();
+            builder.append(ChatColor.GOLD.toString() + ChatColor.BOLD + ChatColor.UNDERLINE + "Load times of " + script.getName() + "\n");
+            for (LoadPhase phase : LoadPhase.values()) {
+                builder.append(ChatColor.GOLD + phase.getDisplayName() + ": " + ChatColor.RESET + LoadTimings.formatNanos(timings.getNanos(phase)) + "\n");
+            }
+            builder.append(ChatColor.GOLD + "Total: " + ChatColor.RESET + LoadTimings.formatNanos(timings.getTotalNanos()));
+
+            sender.sendMessage(builder.toString());
+        } else {
+            LoadReport report = ScriptManager.get().getLastLoadReport();
+            if (report == null) {
+                sender.sendMessage(ChatColor.RED + "Scripts have not been loaded yet.");
+                return true;
+            }
+
+            StringBuilder builder = new StringBuilder();
+            builder.append(ChatColor.GOLD.toString() + ChatColor.BOLD + ChatColor.UNDERLINE + "Script load times (" + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(report.getTimestamp())) + ")" + "\n");
+            List<String> phases = new ArrayList<>();
+            for (LoadPhase phase : LoadPhase.values()) {
+                phases.add(phase.getDisplayName() + ": " + LoadTimings.formatNanos(report.getTotalNanos(phase)));
+            }
+            builder.append(ChatColor.GOLD + "All scripts: " + ChatColor.RESET + LoadTimings.formatNanos(report.getWallNanos()) + " (" + String.join(", ", phases) + ")\n");
+            if (report.getEntries().isEmpty())
+                builder.append(ChatColor.RESET + "No scripts were loaded.");
+            for (Map.Entry<String, LoadTimings> entry : report.getEntries()) {
+                builder.append("\n" + ChatColor.GOLD + entry.getKey() + ": " + ChatColor.RESET + entry.getValue());
+            }
+
+            sender.sendMessage(builder.toString());
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, String[] args) {
+        if (args.length > 0) {
+            return new ArrayList<>(ScriptManager.get().getLoadedScriptNames());
+        } else {
+            return null;
+        }
+    }
+}
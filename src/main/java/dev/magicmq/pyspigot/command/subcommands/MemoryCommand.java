@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.command.subcommands;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.command.SubCommand;
+import dev.magicmq.pyspigot.command.SubCommandMeta;
+import dev.magicmq.pyspigot.manager.profile.MemoryEstimate;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+@SubCommandMeta(
+        command = "memory",
+        aliases = {"mem"},
+        permission = "pyspigot.command.memory",
+        description = "Estimate the memory retained by all running scripts, or by a single script",
+        usage = "[scriptname]"
+)
+public class MemoryCommand implements SubCommand {
+
+    @Override
+    public boolean onCommand(CommandSender sender, String[] args) {
+        List<Script> scripts = new ArrayList<>();
+        if (args.length > 0) {
+            Script script = ScriptManager.get().getScript(args[0]);
+            if (script == null) {
+                sender.sendMessage(ChatColor.RED + "No running script found with the name '" + args[0] + "'.");
+                return true;
+            }
+            scripts.add(script);
+        } else
+            scripts.addAll(ScriptManager.get().getLoadedScripts());
+
+        if (scripts.isEmpty()) {
+            sender.sendMessage(ChatColor.RED + "No scripts are running.");
+            return true;
+        }
+
+        sender.sendMessage(ChatColor.GREEN + "Estimating memory for " + scripts.size() + " script(s)...");
+
+        Map<Script, CompletableFuture<MemoryEstimate>> estimates = new LinkedHashMap<>();
+        for (Script script : scripts) {
+            estimates.put(script, ProfileManager.get().estimateMemory(script));
+        }
+
+        CompletableFuture.allOf(estimates.values().toArray(new CompletableFuture[0])).whenComplete((result, throwable) -> Bukkit.getScheduler().runTask(PySpigot.get(), () -> {
+            if (throwable != null) {
+                PySpigot.get().getLogger().log(Level.SEVERE, "Error when estimating script memory", throwable);
+                sender.sendMessage(ChatColor.RED + "There was an error when estimating script memory. See console for details.");
+                return;
+            }
+
+            List<Map.Entry<Script, CompletableFuture<MemoryEstimate>>> sorted = new ArrayList<>(estimates.entrySet());
+            sorted.sort(Comparator.comparingLong((Map.Entry<Script, CompletableFuture<MemoryEstimate>> entry) -> entry.getValue().join().getBytes()).reversed());
+
+            StringBuilder builder = new StringBuilder();
+            builder.append(ChatColor.GOLD.toString() + ChatColor.BOLD + ChatColor.UNDERLINE + "Estimated script memory");
+            for (Map.Entry<Script, CompletableFuture<MemoryEstimate>> entry : sorted) {
+                builder.append("\n" + ChatColor.GOLD + entry.getKey().getName() + ": " + ChatColor.RESET + entry.getValue().join());
+            }
+            sender.sendMessage(builder.toString());
+        }));
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, String[] args) {
+        if (args.length > 0) {
+            return new ArrayList<>(ScriptManager.get().getLoadedScriptNames());
+        } else {
+            return null;
+        }
+    }
+}
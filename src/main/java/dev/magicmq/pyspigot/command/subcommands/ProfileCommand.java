@@ -0,0 +1,111 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.command.subcommands;
+
+import dev.magicmq.pyspigot.command.SubCommand;
+import dev.magicmq.pyspigot.command.SubCommandMeta;
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ScriptProfile;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@SubCommandMeta(
+        command = "profile",
+        aliases = {"prof"},
+        permission = "pyspigot.command.profile",
+        description = "Print the time scripts have spent in event listeners, tasks, commands, and more over the last 1s, 1m, and 5m",
+        usage = "[scriptname]"
+)
+public class ProfileCommand implements SubCommand {
+
+    private static final int[] WINDOWS = {1, 60, ScriptProfile.MAX_WINDOW};
+    private static final String[] WINDOW_NAMES = {"1s", "1m", "5m"};
+
+    @Override
+    public boolean onCommand(CommandSender sender, String[] args) {
+        if (args.length > 0) {
+            Script script = ScriptManager.get().getScript(args[0]);
+            if (script == null || script.getProfile() == null) {
+                sender.sendMessage(ChatColor.RED + "No running script found with the name '" + args[0] + "'.");
+                return true;
+            }
+
+            ScriptProfile profile = script.getProfile();
+            StringBuilder builder = new StringBuilder();
+            builder.append(ChatColor.GOLD.toString() + ChatColor.BOLD + ChatColor.UNDERLINE + "Profile of " + script.getName() + "\n");
+            for (CallType type : CallType.values()) {
+                for (boolean mainThread : new boolean[]{true, false}) {
+                    if (profile.getCalls(type, mainThread, ScriptProfile.MAX_WINDOW) == 0)
+                        continue;
+
+                    List<String> windows = new ArrayList<>();
+                    for (int i = 0; i < WINDOWS.length; i++) {
+                        long calls = profile.getCalls(type, mainThread, WINDOWS[i]);
+                        long nanos = profile.getNanos(type, mainThread, WINDOWS[i]);
+                        windows.add(WINDOW_NAMES[i] + ": " + formatNanos(nanos) + " (" + calls + " calls)");
+                    }
+                    builder.append(ChatColor.GOLD + type.getDisplayName() + (mainThread ? " (main thread)" : " (async)") + ": " + ChatColor.RESET + String.join(", ", windows) + "\n");
+                }
+            }
+            builder.append(ChatColor.GOLD + "Total: " + ChatColor.RESET + formatTotals(profile));
+
+            sender.sendMessage(builder.toString());
+        } else {
+            List<Script> scripts = new ArrayList<>(ScriptManager.get().getLoadedScripts());
+            scripts.removeIf(script -> script.getProfile() == null);
+            scripts.sort(Comparator.comparingLong((Script script) -> script.getProfile().getTotalNanos(true, 60)).reversed());
+
+            StringBuilder builder = new StringBuilder();
+            builder.append(ChatColor.GOLD.toString() + ChatColor.BOLD + ChatColor.UNDERLINE + "Script profiles (main thread / async)" + "\n");
+            if (scripts.isEmpty())
+                builder.append(ChatColor.RESET + "No scripts are running.");
+            for (Script script : scripts) {
+                builder.append("\n" + ChatColor.GOLD + script.getName() + ": " + ChatColor.RESET + formatTotals(script.getProfile()));
+            }
+
+            sender.sendMessage(builder.toString());
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, String[] args) {
+        if (args.length > 0) {
+            return new ArrayList<>(ScriptManager.get().getLoadedScriptNames());
+        } else {
+            return null;
+        }
+    }
+
+    private String formatTotals(ScriptProfile profile) {
+        List<String> windows = new ArrayList<>();
+        for (int i = 0; i < WINDOWS.length; i++) {
+            windows.add(WINDOW_NAMES[i] + ": " + formatNanos(profile.getTotalNanos(true, WINDOWS[i])) + " / " + formatNanos(profile.getTotalNanos(false, WINDOWS[i])));
+        }
+        return String.join(", ", windows);
+    }
+
+    private String formatNanos(long nanos) {
+        return String.format("%.2fms", nanos / 1000000D);
+    }
+}
@@ -24,21 +24,40 @@ import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 
+import java.util.Collections;
+import java.util.List;
+
 @SubCommandMeta(
         command = "reloadall",
         aliases = {"reset", "restart", "reboot", "resetall"},
         permission = "pyspigot.command.reloadall",
-        description = "Perform a complete reload of the plugin, including configs, libraries, and all scripts."
+        description = "Reload configs and libraries, and reload scripts that changed. Use 'full' to reload all scripts.",
+        usage = "[full]"
 )
 public class ReloadAllCommand implements SubCommand {
 
     @Override
     public boolean onCommand(CommandSender sender, String[] args) {
-        ScriptManager.get().unloadScripts();
-        PySpigot.get().reload();
-        LibraryManager.get().reload();
-        ScriptManager.get().loadScripts();
-        sender.sendMessage(ChatColor.GREEN + "All scripts, plugin config, and script_options.yml have been reloaded.");
+        if (args.length > 0 && args[0].equalsIgnoreCase("full")) {
+            ScriptManager.get().unloadScripts();
+            PySpigot.get().reload();
+            LibraryManager.get().reload();
+            ScriptManager.get().loadScripts();
+            sender.sendMessage(ChatColor.GREEN + "All scripts, plugin config, and script_options.yml have been reloaded.");
+        } else {
+            PySpigot.get().reload();
+            LibraryManager.get().reload();
+            int changed = ScriptManager.get().reloadChangedScripts();
+            sender.sendMessage(ChatColor.GREEN + "Plugin config and script_options.yml have been reloaded, along with " + changed + " changed script(s).");
+        }
         return true;
     }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, String[] args) {
+        if (args.length == 1)
+            return Collections.singletonList("full");
+        else
+            return Collections.emptyList();
+    }
 }
@@ -23,7 +23,6 @@ import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,30 +38,25 @@ public class ReloadCommand implements SubCommand {
     public boolean onCommand(CommandSender sender, String[] args) {
         if (args.length > 0) {
             if (args[0].endsWith(".py")) {
-                if (ScriptManager.get().isScriptRunning(args[0])) {
-                    boolean success = ScriptManager.get().unloadScript(args[0]);
-                    if (!success) {
-                        sender.sendMessage(ChatColor.RED + "There was an error when unloading script '" + args[0] + "'. See console for details.");
-                        return true;
-                    }
-                }
-
-                try {
-                    RunResult result = ScriptManager.get().loadScript(args[0]);
-                    if (result == RunResult.SUCCESS)
+                ScriptManager.get().reloadScriptAsync(args[0]).whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        throwable.printStackTrace();
+                        sender.sendMessage(ChatColor.RED + "There was an error when reloading script '" + args[0] + "'. See console for details.");
+                    } else if (result == RunResult.SUCCESS)
                         sender.sendMessage(ChatColor.GREEN + "Successfully reloaded and script '" + args[0] + "'.");
                     else if (result == RunResult.FAIL_PLUGIN_DEPENDENCY)
                         sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' was not reloaded due to missing plugin dependencies. See console for details.");
+                    else if (result == RunResult.FAIL_SCRIPT_DEPENDENCY)
+                        sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' was not reloaded because scripts it depends on are not loaded. See console for details.");
                     else if (result == RunResult.FAIL_DISABLED)
                         sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' was not reloaded because it is disabled as per its options in script_options.yml.");
                     else if (result == RunResult.FAIL_ERROR)
                         sender.sendMessage(ChatColor.RED + "There was an error when reloading script '" + args[0] + "'. See console for details.");
+                    else if (result == RunResult.FAIL_DUPLICATE)
+                        sender.sendMessage(ChatColor.RED + "Script '" + args[0] + "' is already being loaded.");
                     else if (result == RunResult.FAIL_SCRIPT_NOT_FOUND)
                         sender.sendMessage(ChatColor.RED + "No script found in the scripts folder with the name '" + args[0] + "'.");
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    sender.sendMessage(ChatColor.RED + "There was an error when reloading script '" + args[0] + "'. See console for details.");
-                }
+                });
             } else {
                 sender.sendMessage(ChatColor.RED + "Script names must end in .py.");
             }
@@ -0,0 +1,84 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.command.subcommands;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.command.SubCommand;
+import dev.magicmq.pyspigot.command.SubCommandMeta;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
+import dev.magicmq.pyspigot.manager.profile.SamplingProfiler;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+@SubCommandMeta(
+        command = "sampler",
+        permission = "pyspigot.command.sampler",
+        description = "Start or stop the sampling profiler, which writes sampled script stacks to the profiles folder",
+        usage = "<start [async]|stop|status>"
+)
+public class SamplerCommand implements SubCommand {
+
+    @Override
+    public boolean onCommand(CommandSender sender, String[] args) {
+        if (args.length > 0) {
+            SamplingProfiler profiler = ProfileManager.get().getSamplingProfiler();
+            if (args[0].equalsIgnoreCase("start")) {
+                boolean sampleAsync = args.length > 1 && args[1].equalsIgnoreCase("async");
+                if (profiler.start(sampleAsync))
+                    sender.sendMessage(ChatColor.GREEN + "Started the sampling profiler" + (sampleAsync ? " (sampling async threads)." : "."));
+                else
+                    sender.sendMessage(ChatColor.RED + "The sampling profiler is already running.");
+            } else if (args[0].equalsIgnoreCase("stop")) {
+                if (profiler.stop()) {
+                    try {
+                        Path file = profiler.save();
+                        sender.sendMessage(ChatColor.GREEN + "Stopped the sampling profiler after " + profiler.getSamples() + " samples. Results were saved to " + PySpigot.get().getDataFolderPath().relativize(file) + ".");
+                    } catch (IOException e) {
+                        PySpigot.get().getLogger().log(Level.SEVERE, "Error when saving sampling profiler results", e);
+                        sender.sendMessage(ChatColor.RED + "Stopped the sampling profiler, but there was an error when saving the results. See console for details.");
+                    }
+                } else
+                    sender.sendMessage(ChatColor.RED + "The sampling profiler is not running.");
+            } else if (args[0].equalsIgnoreCase("status")) {
+                if (profiler.isRunning())
+                    sender.sendMessage(ChatColor.GREEN + "The sampling profiler is running. " + profiler.getSamples() + " samples taken, " + String.format("%.2f%%", profiler.getOverhead() * 100) + " overhead.");
+                else
+                    sender.sendMessage(ChatColor.GREEN + "The sampling profiler is not running.");
+            } else
+                return false;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, String[] args) {
+        if (args.length == 1)
+            return Arrays.asList("start", "stop", "status");
+        else if (args.length == 2 && args[0].equalsIgnoreCase("start"))
+            return Collections.singletonList("async");
+        else
+            return Collections.emptyList();
+    }
+}
@@ -77,6 +77,62 @@ public class PluginConfig {
         return config.getBoolean("script-unload-on-plugin-disable");
     }
 
+    public static boolean isScriptCacheEnabled() {
+        return config.getBoolean("script-cache-enabled");
+    }
+
+    public static int getScriptCompileThreads() {
+        return config.getInt("script-compile-threads");
+    }
+
+    public static int getSystemStatePoolSize() {
+        return config.getInt("system-state-pool-size");
+    }
+
+    public static boolean isScriptWatcherEnabled() {
+        return config.getBoolean("script-watcher.enabled");
+    }
+
+    public static long getScriptWatcherDebounce() {
+        return config.getLong("script-watcher.debounce");
+    }
+
+    public static List<String> getSharedModules() {
+        return config.getStringList("shared-modules");
+    }
+
+    public static String getPrecompiledScripts() {
+        return config.getString("precompiled-scripts", "");
+    }
+
+    public static boolean isInterpreterReuseEnabled() {
+        return config.getBoolean("interpreter-reuse");
+    }
+
+    public static boolean isLeakDetectorEnabled() {
+        return config.getBoolean("leak-detector.enabled");
+    }
+
+    public static long getLeakDetectorGracePeriod() {
+        return config.getLong("leak-detector.grace-period");
+    }
+
+    public static long getSamplingProfilerInterval() {
+        return config.getLong("sampling-profiler.interval");
+    }
+
+    public static boolean isWatchdogEnabled() {
+        return config.getBoolean("watchdog.enabled");
+    }
+
+    public static long getWatchdogBudget(String callbackType) {
+        return config.getLong("watchdog.budgets." + callbackType);
+    }
+
+    public static int getWatchdogUnloadAfterOverruns() {
+        return config.getInt("watchdog.unload-after-overruns");
+    }
+
     public static boolean scriptOptionEnabled() {
         return config.getBoolean("script-option-defaults.enabled");
     }
@@ -89,6 +145,18 @@ public class PluginConfig {
         return config.getStringList("script-option-defaults.plugin-depend");
     }
 
+    public static List<String> scriptOptionScriptDepend() {
+        return config.getStringList("script-option-defaults.script-depend");
+    }
+
+    public static List<String> scriptOptionPreserveGlobals() {
+        return config.getStringList("script-option-defaults.preserve-globals");
+    }
+
+    public static long scriptOptionAsyncCpuQuota() {
+        return config.getLong("script-option-defaults.async-cpu-quota");
+    }
+
     public static boolean scriptOptionFileLoggingEnabled() {
         return config.getBoolean("script-option-defaults.file-logging-enabled");
     }
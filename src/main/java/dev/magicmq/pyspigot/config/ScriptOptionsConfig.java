@@ -119,6 +119,50 @@ public class ScriptOptionsConfig {
             return defaultValue;
     }
 
+    public static List<String> getScriptDepend(String scriptName, List<String> defaultValue) throws InvalidConfigurationException {
+        Map<?, ?> scriptSection = getScriptSection(scriptName);
+        if (scriptSection.containsKey("script-depend")) {
+            try {
+                List<String> toReturn = new ArrayList<>();
+                for (Object entry : (Iterable<?>) scriptSection.get("script-depend")) {
+                    toReturn.add(entry.toString());
+                }
+                return toReturn;
+            } catch (ClassCastException e) {
+                throw new InvalidConfigurationException("Expected a list for 'script-depend', but got something else.");
+            }
+        } else
+            return defaultValue;
+    }
+
+    public static List<String> getPreserveGlobals(String scriptName, List<String> defaultValue) throws InvalidConfigurationException {
+        Map<?, ?> scriptSection = getScriptSection(scriptName);
+        if (scriptSection.containsKey("preserve-globals")) {
+            try {
+                List<String> toReturn = new ArrayList<>();
+                for (Object entry : (Iterable<?>) scriptSection.get("preserve-globals")) {
+                    toReturn.add(entry.toString());
+                }
+                return toReturn;
+            } catch (ClassCastException e) {
+                throw new InvalidConfigurationException("Expected a list for 'preserve-globals', but got something else.");
+            }
+        } else
+            return defaultValue;
+    }
+
+    public static long getAsyncCpuQuota(String scriptName, long defaultValue) throws InvalidConfigurationException {
+        Map<?, ?> scriptSection = getScriptSection(scriptName);
+        if (scriptSection.containsKey("async-cpu-quota")) {
+            try {
+                return ((Number) scriptSection.get("async-cpu-quota")).longValue();
+            } catch (ClassCastException e) {
+                throw new InvalidConfigurationException("Expected a number for 'async-cpu-quota', but got something else.");
+            }
+        } else
+            return defaultValue;
+    }
+
     public static boolean getFileLoggingEnabled(String scriptName, boolean defaultValue) throws InvalidConfigurationException {
         Map<?, ?> scriptSection = getScriptSection(scriptName);
         if (scriptSection.containsKey("file-logging-enabled")) {
@@ -46,6 +46,9 @@ public class CommandManager {
 
     private final HashMap<Script, List<ScriptCommand>> registeredCommands;
 
+    private int syncPauses;
+    private boolean syncPending;
+
     private CommandManager() {
         bSyncCommands = ReflectionUtils.getMethod(Bukkit.getServer().getClass(), "syncCommands");
         if (bSyncCommands != null)
@@ -234,6 +237,28 @@ public class CommandManager {
             return null;
     }
 
+    /**
+     * Stop syncing the server's command list every time a command is registered or unregistered, until {@link #resumeCommandSync()} is called. Used to sync commands only once when many scripts are loaded or unloaded at once.
+     * <p>
+     * Calls may be nested, commands are synced once the outermost pause is resumed.
+     */
+    public void pauseCommandSync() {
+        syncPauses++;
+    }
+
+    /**
+     * Resume syncing the server's command list after a call to {@link #pauseCommandSync()}. If any commands were registered or unregistered while syncing was paused, the command list is synced now.
+     */
+    public void resumeCommandSync() {
+        if (syncPauses > 0)
+            syncPauses--;
+
+        if (syncPauses == 0 && syncPending) {
+            syncPending = false;
+            syncBukkitCommands();
+        }
+    }
+
     private boolean addCommandToBukkit(ScriptCommand command) {
         return bCommandMap.register(command.getScript().getName(), command.getBukkitCommand());
     }
@@ -246,6 +271,11 @@ public class CommandManager {
     }
 
     private void syncBukkitCommands() {
+        if (syncPauses > 0) {
+            syncPending = true;
+            return;
+        }
+
         if (bSyncCommands != null) {
             try {
                 bSyncCommands.invoke(Bukkit.getServer());
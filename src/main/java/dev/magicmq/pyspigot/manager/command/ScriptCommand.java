@@ -17,6 +17,8 @@
 package dev.magicmq.pyspigot.manager.command;
 
 import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import dev.magicmq.pyspigot.util.CommandAliasHelpTopic;
@@ -92,6 +94,7 @@ public class ScriptCommand implements TabExecutor {
 
     @Override
     public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args) {
+        long start = ProfileManager.get().begin(script, CallType.COMMAND);
         try {
             PyObject[] parameters = Py.javas2pys(sender, label, args);
             PyObject result = commandFunction.__call__(parameters[0], parameters[1], parameters[2]);
@@ -103,6 +106,8 @@ public class ScriptCommand implements TabExecutor {
             ScriptManager.get().handleScriptException(script, exception, "Unhandled exception when executing command '" + label + "'");
             //Mimic Bukkit behavior
             sender.sendMessage(ChatColor.RED + "An internal error occurred while attempting to perform this command");
+        } finally {
+            ProfileManager.get().end(script, CallType.COMMAND, start);
         }
         return true;
     }
@@ -110,6 +115,7 @@ public class ScriptCommand implements TabExecutor {
     @Override
     public List<String> onTabComplete(CommandSender sender, Command cmd, String alias, String[] args) {
         if (tabFunction != null) {
+            long start = ProfileManager.get().begin(script, CallType.TAB_COMPLETE);
             try {
                 PyObject[] parameters = Py.javas2pys(sender, alias, args);
                 PyObject result = tabFunction.__call__(parameters[0], parameters[1], parameters[2]);
@@ -128,6 +134,8 @@ public class ScriptCommand implements TabExecutor {
                 }
             } catch (PyException exception) {
                 ScriptManager.get().handleScriptException(script, exception,  "Unhandled exception when tab completing command '" + bukkitCommand.getLabel() + "'");
+            } finally {
+                ProfileManager.get().end(script, CallType.TAB_COMPLETE, start);
             }
         }
         return Collections.emptyList();
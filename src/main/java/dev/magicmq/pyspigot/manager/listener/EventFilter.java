@@ -0,0 +1,215 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.inventory.InventoryInteractEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.vehicle.VehicleEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.bukkit.event.world.WorldEvent;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A set of conditions an event must meet before it is passed to a script's event listener. Filters are checked in Java, so events that do not pass are dropped without calling into the script.
+ * <p>
+ * Filters are immutable; each method returns a new filter with the added condition. An event passes the filter only if it meets every condition that was set. If a condition cannot be checked for an event (for example, a world condition for an event that does not involve a world), the event does not pass.
+ * @see ListenerManager#newEventFilter()
+ */
+public class EventFilter {
+
+    private final Set<String> worlds;
+    private final Set<Material> materials;
+    private final boolean blockChanged;
+    private final String permission;
+    private final Set<UUID> players;
+
+    protected EventFilter() {
+        this(null, null, false, null, null);
+    }
+
+    private EventFilter(Set<String> worlds, Set<Material> materials, boolean blockChanged, String permission, Set<UUID> players) {
+        this.worlds = worlds;
+        this.materials = materials;
+        this.blockChanged = blockChanged;
+        this.permission = permission;
+        this.players = players;
+    }
+
+    /**
+     * Only pass events that occur in one of the given worlds.
+     * @param worlds The names of the worlds
+     * @return A new filter with the condition added
+     */
+    public EventFilter worlds(String... worlds) {
+        return new EventFilter(Set.copyOf(Arrays.asList(worlds)), materials, blockChanged, permission, players);
+    }
+
+    /**
+     * Only pass events that involve a block of one of the given materials. The block is the block of a {@link org.bukkit.event.block.BlockEvent} or the clicked block of a {@link org.bukkit.event.player.PlayerInteractEvent}.
+     * @param materials The materials
+     * @return A new filter with the condition added
+     */
+    public EventFilter materials(Material... materials) {
+        return new EventFilter(worlds, Set.copyOf(Arrays.asList(materials)), blockChanged, permission, players);
+    }
+
+    /**
+     * Only pass move events ({@link org.bukkit.event.player.PlayerMoveEvent} and {@link org.bukkit.event.vehicle.VehicleMoveEvent}) where the block position changed, ignoring movement within a block and head rotation.
+     * @return A new filter with the condition added
+     */
+    public EventFilter blockChanged() {
+        return new EventFilter(worlds, materials, true, permission, players);
+    }
+
+    /**
+     * Only pass events whose player has the given permission.
+     * @param permission The permission
+     * @return A new filter with the condition added
+     */
+    public EventFilter permission(String permission) {
+        return new EventFilter(worlds, materials, blockChanged, permission, players);
+    }
+
+    /**
+     * Only pass events whose player is one of the given players.
+     * @param players The UUIDs of the players
+     * @return A new filter with the condition added
+     */
+    public EventFilter players(UUID... players) {
+        return new EventFilter(worlds, materials, blockChanged, permission, Set.copyOf(Arrays.asList(players)));
+    }
+
+    /**
+     * Check if an event passes this filter.
+     * @param event The event to check
+     * @return True if the event meets every condition of this filter, false if otherwise
+     */
+    public boolean test(Event event) {
+        if (blockChanged && !isBlockChanged(event))
+            return false;
+
+        if (worlds != null) {
+            World world = getWorld(event);
+            if (world == null || !worlds.contains(world.getName()))
+                return false;
+        }
+
+        if (materials != null) {
+            Block block = getBlock(event);
+            if (block == null || !materials.contains(block.getType()))
+                return false;
+        }
+
+        if (permission != null || players != null) {
+            Player player = getPlayer(event);
+            if (player == null)
+                return false;
+            if (players != null && !players.contains(player.getUniqueId()))
+                return false;
+            if (permission != null && !player.hasPermission(permission))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Prints a representation of this EventFilter in string format, including all conditions that were set
+     * @return A string representation of the EventFilter
+     */
+    @Override
+    public String toString() {
+        return String.format("EventFilter[Worlds: %s, Materials: %s, Block Changed: %b, Permission: %s, Players: %s]", worlds, materials, blockChanged, permission, players);
+    }
+
+    private static boolean isBlockChanged(Event event) {
+        Location from;
+        Location to;
+        if (event instanceof PlayerMoveEvent moveEvent) {
+            from = moveEvent.getFrom();
+            to = moveEvent.getTo();
+        } else if (event instanceof VehicleMoveEvent moveEvent) {
+            from = moveEvent.getFrom();
+            to = moveEvent.getTo();
+        } else
+            return false;
+
+        if (to == null)
+            return true;
+
+        return from.getBlockX() != to.getBlockX()
+                || from.getBlockY() != to.getBlockY()
+                || from.getBlockZ() != to.getBlockZ()
+                || from.getWorld() != to.getWorld();
+    }
+
+    protected static World getWorld(Event event) {
+        if (event instanceof PlayerEvent playerEvent)
+            return playerEvent.getPlayer().getWorld();
+        else if (event instanceof BlockEvent blockEvent)
+            return blockEvent.getBlock().getWorld();
+        else if (event instanceof EntityEvent entityEvent)
+            return entityEvent.getEntity().getWorld();
+        else if (event instanceof VehicleEvent vehicleEvent)
+            return vehicleEvent.getVehicle().getWorld();
+        else if (event instanceof WorldEvent worldEvent)
+            return worldEvent.getWorld();
+        else if (event instanceof InventoryInteractEvent inventoryEvent)
+            return inventoryEvent.getWhoClicked().getWorld();
+        else
+            return null;
+    }
+
+    protected static Block getBlock(Event event) {
+        if (event instanceof BlockEvent blockEvent)
+            return blockEvent.getBlock();
+        else if (event instanceof PlayerInteractEvent interactEvent)
+            return interactEvent.getClickedBlock();
+        else
+            return null;
+    }
+
+    protected static Player getPlayer(Event event) {
+        if (event instanceof PlayerEvent playerEvent)
+            return playerEvent.getPlayer();
+        else if (event instanceof BlockBreakEvent breakEvent)
+            return breakEvent.getPlayer();
+        else if (event instanceof BlockPlaceEvent placeEvent)
+            return placeEvent.getPlayer();
+        else if (event instanceof EntityEvent entityEvent && entityEvent.getEntity() instanceof Player player)
+            return player;
+        else if (event instanceof InventoryInteractEvent inventoryEvent && inventoryEvent.getWhoClicked() instanceof Player player)
+            return player;
+        else
+            return null;
+    }
+}
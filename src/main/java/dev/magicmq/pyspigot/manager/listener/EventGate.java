@@ -0,0 +1,252 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+import dev.magicmq.pyspigot.PySpigot;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.vehicle.VehicleEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Applies a {@link ListenerMode} to the events of a single script event listener, deciding which events are passed to the script.
+ * <p>
+ * Throttled and sampled events are either passed immediately or dropped. Debounced events are held, and the last event of each group is passed on the main thread once no event of the group has occurred for the length of the window. Batched events are collected, and passed together on the main thread once per interval. At most {@link #MAX_BATCH_SIZE} events are collected per interval; further events are dropped until the batch is passed.
+ */
+public class EventGate {
+
+    /**
+     * The maximum number of events collected for a single batch.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final long THROTTLE_WINDOW = 1000L;
+    //Shared group for events that do not involve the grouped object
+    private static final Object NO_KEY = new Object();
+
+    private final ListenerMode mode;
+    private final ScriptEventExecutor executor;
+    private final Map<Object, ThrottleWindow> windows;
+    private final AtomicLong sampleCount;
+    private final Map<Object, PendingEvent> pending;
+    private final Queue<Event> batch;
+    private final AtomicInteger batchSize;
+    private final AtomicLong dropped;
+    private final AtomicBoolean droppedWarned;
+
+    private BukkitTask flushTask;
+
+    /**
+     *
+     * @param mode The listener mode to apply
+     * @param executor The executor that debounced and batched events are passed to
+     */
+    protected EventGate(ListenerMode mode, ScriptEventExecutor executor) {
+        this.mode = mode;
+        this.executor = executor;
+        this.windows = new ConcurrentHashMap<>();
+        this.sampleCount = new AtomicLong();
+        this.pending = new ConcurrentHashMap<>();
+        this.batch = new ConcurrentLinkedQueue<>();
+        this.batchSize = new AtomicInteger();
+        this.dropped = new AtomicLong();
+        this.droppedWarned = new AtomicBoolean();
+    }
+
+    /**
+     * Offer an event to this gate.
+     * @param event The event that occurred
+     * @return True if the event should be passed to the script now, false if it was dropped or is being held
+     */
+    public boolean offer(Event event) {
+        ListenerMode.Type type = mode.getType();
+        if (type == ListenerMode.Type.THROTTLE) {
+            long now = System.currentTimeMillis();
+            ThrottleWindow window = windows.compute(getKey(event), (key, existing) -> {
+                if (existing == null || now - existing.start >= THROTTLE_WINDOW)
+                    return new ThrottleWindow(now, 1);
+                else
+                    return new ThrottleWindow(existing.start, existing.count + 1);
+            });
+            return window.count <= mode.getAmount();
+        } else if (type == ListenerMode.Type.SAMPLE) {
+            return sampleCount.getAndIncrement() % mode.getAmount() == 0;
+        } else if (type == ListenerMode.Type.BATCH) {
+            //Reserve a place in the batch first, so the batch never grows past its limit
+            if (batchSize.incrementAndGet() > MAX_BATCH_SIZE) {
+                batchSize.decrementAndGet();
+                dropped.incrementAndGet();
+                if (droppedWarned.compareAndSet(false, true))
+                    executor.getScriptEventListener().getScript().getLogger().log(Level.WARNING, "A batched listener for " + executor.getScriptEventListener().getEvent().getSimpleName() + " received more than " + MAX_BATCH_SIZE + " events in one interval, further events in the interval are dropped");
+                return false;
+            }
+            batch.add(event);
+            return false;
+        } else {
+            //Every event pushes the window back, so the event is only passed once the group has been quiet for the whole window
+            pending.put(getKey(event), new PendingEvent(event, System.currentTimeMillis() + mode.getAmount()));
+            return false;
+        }
+    }
+
+    /**
+     * Get the number of groups that have a debounced event waiting to be passed.
+     * @return The number of pending events
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Get the number of events collected for the next batch.
+     * @return The number of batched events
+     */
+    public int getBatchSize() {
+        return batchSize.get();
+    }
+
+    /**
+     * Get the number of batched events dropped because the batch was full.
+     * @return The total number of dropped events since the listener was registered
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Start passing debounced events once their window closes, or batched events once per interval. For throttled events, expired windows are removed once per second.
+     */
+    protected void start() {
+        if (mode.getType() == ListenerMode.Type.THROTTLE)
+            flushTask = Bukkit.getScheduler().runTaskTimer(PySpigot.get(), this::expireWindows, 20L, 20L);
+        else if (mode.getType() == ListenerMode.Type.DEBOUNCE)
+            flushTask = Bukkit.getScheduler().runTaskTimer(PySpigot.get(), this::flush, 1L, 1L);
+        else if (mode.getType() == ListenerMode.Type.BATCH)
+            flushTask = Bukkit.getScheduler().runTaskTimer(PySpigot.get(), this::flushBatch, mode.getAmount(), mode.getAmount());
+    }
+
+    /**
+     * Stop passing debounced and batched events. Events that are still pending are discarded.
+     */
+    protected void stop() {
+        if (flushTask != null)
+            flushTask.cancel();
+        pending.clear();
+        batch.clear();
+        batchSize.set(0);
+        windows.clear();
+    }
+
+    private void expireWindows() {
+        long now = System.currentTimeMillis();
+        windows.values().removeIf(window -> now - window.start >= THROTTLE_WINDOW);
+    }
+
+    /**
+     * Pass debounced events whose window has closed to the script. Called once per tick while the listener is registered.
+     */
+    protected void flush() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Object, PendingEvent> entry : pending.entrySet()) {
+            PendingEvent pendingEvent = entry.getValue();
+            if (pendingEvent.closesAt <= now && pending.remove(entry.getKey(), pendingEvent))
+                executor.call(pendingEvent.event);
+        }
+    }
+
+    /**
+     * Pass all batched events to the script as a single batch. Called once per interval while the listener is registered.
+     */
+    protected void flushBatch() {
+        if (batch.isEmpty())
+            return;
+
+        List<Event> events = new ArrayList<>();
+        Event event;
+        while ((event = batch.poll()) != null) {
+            batchSize.decrementAndGet();
+            events.add(event);
+        }
+        executor.callBatch(events);
+    }
+
+    private Object getKey(Event event) {
+        EventKey key = mode.getKey();
+        Object value = null;
+        if (key == EventKey.PLAYER) {
+            Player player = EventFilter.getPlayer(event);
+            if (player != null)
+                value = player.getUniqueId();
+        } else if (key == EventKey.ENTITY) {
+            if (event instanceof EntityEvent entityEvent)
+                value = entityEvent.getEntity().getUniqueId();
+            else if (event instanceof VehicleEvent vehicleEvent)
+                value = vehicleEvent.getVehicle().getUniqueId();
+            else {
+                Player player = EventFilter.getPlayer(event);
+                if (player != null)
+                    value = player.getUniqueId();
+            }
+        } else if (key == EventKey.BLOCK) {
+            Block block = EventFilter.getBlock(event);
+            if (block != null)
+                value = block.getLocation();
+        } else if (key == EventKey.WORLD) {
+            World world = EventFilter.getWorld(event);
+            if (world != null)
+                value = world.getName();
+        }
+        return value != null ? value : NO_KEY;
+    }
+
+    private static class ThrottleWindow {
+
+        private final long start;
+        private final long count;
+
+        private ThrottleWindow(long start, long count) {
+            this.start = start;
+            this.count = count;
+        }
+    }
+
+    private static class PendingEvent {
+
+        private final Event event;
+        private final long closesAt;
+
+        private PendingEvent(Event event, long closesAt) {
+            this.event = event;
+            this.closesAt = closesAt;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+/**
+ * An enum representing what events are grouped by when a {@link ListenerMode} limits events separately for each group, for example to throttle events for each player separately.
+ * <p>
+ * Events that do not involve the grouped object (for example, an event without a player when grouping by player) are placed in one shared group.
+ */
+public enum EventKey {
+
+    /**
+     * All events are in one group.
+     */
+    GLOBAL,
+
+    /**
+     * Events are grouped by the player involved in the event.
+     */
+    PLAYER,
+
+    /**
+     * Events are grouped by the entity or vehicle involved in the event.
+     */
+    ENTITY,
+
+    /**
+     * Events are grouped by the block involved in the event.
+     */
+    BLOCK,
+
+    /**
+     * Events are grouped by the world the event occurred in.
+     */
+    WORLD
+}
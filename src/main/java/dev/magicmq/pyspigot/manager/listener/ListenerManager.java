@@ -20,6 +20,7 @@ import dev.magicmq.pyspigot.PySpigot;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.util.ScriptUtils;
 import org.bukkit.Bukkit;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
@@ -33,15 +34,19 @@ import java.util.List;
 
 /**
  * Manager to interface with Bukkit's event framework. Primarily used by scripts to register and unregister event listeners.
+ * <p>
+ * A script may register any number of listeners for the same event. All of a script's listeners for the same event and priority share a single registration with Bukkit (see {@link ScriptEventDispatcher}), and are called in the order they were registered.
  */
 public class ListenerManager {
 
     private static ListenerManager manager;
 
     private final HashMap<Script, List<ScriptEventListener>> registeredListeners;
+    private final HashMap<Script, List<ScriptEventDispatcher>> dispatchers;
 
     private ListenerManager() {
         registeredListeners = new HashMap<>();
+        dispatchers = new HashMap<>();
     }
 
     /**
@@ -82,6 +87,33 @@ public class ListenerManager {
         return registerListener(function, eventClass, EventPriority.NORMAL, ignoreCancelled);
     }
 
+    /**
+     * Register a new event listener with default priority, which is only called for events that pass the given filter.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param filter The filter events must pass before the function is called (see {@link #newEventFilter()})
+     * @return The ScriptEventListener that was registered
+     */
+    public ScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventFilter filter) {
+        return registerListener(function, eventClass, EventPriority.NORMAL, false, filter);
+    }
+
+    /**
+     * Register a new event listener, which is only called for events that pass the given filter.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param priority The priority of the event relative to other listeners
+     * @param filter The filter events must pass before the function is called (see {@link #newEventFilter()})
+     * @return The ScriptEventListener that was registered
+     */
+    public ScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventPriority priority, EventFilter filter) {
+        return registerListener(function, eventClass, priority, false, filter);
+    }
+
     /**
      * Register a new event listener.
      * <p>
@@ -93,16 +125,132 @@ public class ListenerManager {
      * @return The ScriptEventListener that was registered
      */
     public ScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled) {
+        return registerListener(function, eventClass, priority, ignoreCancelled, null);
+    }
+
+    /**
+     * Register a new event listener, which is only called for events that pass the given filter.
+     * <p>
+     * Filters are checked in Java before the event is passed to the script, which is much faster than returning early from the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param priority The priority of the event relative to other listeners
+     * @param ignoreCancelled If true, the event listener will not be called if the event has been previously cancelled by another listener.
+     * @param filter The filter events must pass before the function is called (see {@link #newEventFilter()}), or null if the function should be called for all events
+     * @return The ScriptEventListener that was registered
+     */
+    public ScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled, EventFilter filter) {
+        return registerListener(function, eventClass, priority, ignoreCancelled, filter, null);
+    }
+
+    /**
+     * Register a new event listener with default priority, which is only passed the events allowed by the given mode. Use this for high-frequency events when the function does not need every event.
+     * <p>
+     * Batched listeners are registered with {@link EventPriority#MONITOR} priority, since they can only observe events.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param mode The mode that controls which events are passed to the function (see {@link #throttled(int, EventKey)}, {@link #sampled(int)}, {@link #debounced(long, EventKey)}, and {@link #batched(long)})
+     * @return The ScriptEventListener that was registered
+     */
+    public ScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, ListenerMode mode) {
+        EventPriority priority = mode.getType() == ListenerMode.Type.BATCH ? EventPriority.MONITOR : EventPriority.NORMAL;
+        return registerListener(function, eventClass, priority, false, null, mode);
+    }
+
+    /**
+     * Register a new event listener, which is only called for events that pass the given filter and are allowed by the given mode.
+     * <p>
+     * The filter is checked first, so events rejected by the filter do not count towards the mode's limits.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param priority The priority of the event relative to other listeners
+     * @param ignoreCancelled If true, the event listener will not be called if the event has been previously cancelled by another listener.
+     * @param filter The filter events must pass before the function is called (see {@link #newEventFilter()}), or null if the function should be called for all events
+     * @param mode The mode that controls which events are passed to the function, or null if the function should be called for all events
+     * @return The ScriptEventListener that was registered
+     * @throws IllegalArgumentException If the mode is {@link ListenerMode.Type#BATCH} and the event is cancellable, but the priority is not {@link EventPriority#MONITOR}
+     */
+    public ScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled, EventFilter filter, ListenerMode mode) {
+        //Batched events are passed after they complete, so the listener can only observe them
+        if (mode != null && mode.getType() == ListenerMode.Type.BATCH && Cancellable.class.isAssignableFrom(eventClass) && priority != EventPriority.MONITOR)
+            throw new IllegalArgumentException("Batched listeners for cancellable event '" + eventClass.getSimpleName() + "' must be registered with MONITOR priority");
+
         Script script = ScriptUtils.getScriptFromCallStack();
-        ScriptEventListener listener = getEventListener(script, eventClass);
-        if (listener == null) {
-            listener = new ScriptEventListener(script, function, eventClass);
-            Bukkit.getPluginManager().registerEvent(eventClass, listener, priority, listener.getEventExecutor(), PySpigot.get(), ignoreCancelled);
-            addListener(listener);
-            return listener;
-        } else {
-            throw new RuntimeException("Script already has an event listener for '" + eventClass.getSimpleName() + "' registered");
-        }
+        ScriptEventListener listener = new ScriptEventListener(script, function, eventClass, priority, ignoreCancelled, filter, mode);
+
+        ScriptEventDispatcher dispatcher = getDispatcher(script, eventClass, priority);
+        if (dispatcher == null) {
+            dispatcher = new ScriptEventDispatcher(script, eventClass, priority);
+            dispatcher.addListener(listener);
+            //Cancelled events are skipped per listener by the dispatcher
+            Bukkit.getPluginManager().registerEvent(eventClass, dispatcher, priority, dispatcher, PySpigot.get(), false);
+            addDispatcher(dispatcher);
+        } else
+            dispatcher.addListener(listener);
+
+        addListener(listener);
+        listener.getEventExecutor().start();
+        return listener;
+    }
+
+    /**
+     * Get a new, empty {@link EventFilter}. Conditions can be added to the filter, which can then be passed when registering an event listener.
+     * @return A new event filter that passes all events
+     */
+    public EventFilter newEventFilter() {
+        return new EventFilter();
+    }
+
+    /**
+     * Get a listener mode that passes at most a certain number of events per second, for each group of events. Each group has its own one-second window, which opens with the first event of the group; further events of the group within the window are dropped.
+     * @param maxPerSecond The maximum number of events to pass per second, for each group
+     * @param key What events are grouped by, for example {@link EventKey#PLAYER} to throttle each player separately
+     * @return The listener mode
+     */
+    public ListenerMode throttled(int maxPerSecond, EventKey key) {
+        return new ListenerMode(ListenerMode.Type.THROTTLE, maxPerSecond, key);
+    }
+
+    /**
+     * Get a listener mode that passes one in every N events, dropping the rest.
+     * @param rate The sampling rate N
+     * @return The listener mode
+     */
+    public ListenerMode sampled(int rate) {
+        return new ListenerMode(ListenerMode.Type.SAMPLE, rate, EventKey.GLOBAL);
+    }
+
+    /**
+     * Get a listener mode that holds events until they stop occurring, for each group of events. Every event of a group restarts the group's window; once the group has been quiet for the whole window, only its last event is passed.
+     * <p>
+     * <b>Note:</b> Debounced events are passed on the main thread after the event has already completed, so cancelling them or changing them has no effect. As with {@link #batched(long)}, the held event is the event object itself, so the objects it references may have changed by the time it is passed.
+     * @param window The length of the window, in milliseconds
+     * @param key What events are grouped by, for example {@link EventKey#PLAYER} to pass the last event of each player
+     * @return The listener mode
+     */
+    public ListenerMode debounced(long window, EventKey key) {
+        return new ListenerMode(ListenerMode.Type.DEBOUNCE, window, key);
+    }
+
+    /**
+     * Get a listener mode that collects events and passes them to the function together, as one list, at a fixed interval. The function is called at most once per interval, and is not called if no events occurred.
+     * <p>
+     * Batched listeners observe events only. Events are passed on the main thread after they have completed, so cancelling them or changing them has no effect. For this reason, batched listeners for cancellable events must be registered with {@link EventPriority#MONITOR} priority.
+     * <p>
+     * At most {@link EventGate#MAX_BATCH_SIZE} events are collected per interval. Further events in the interval are dropped, and a warning is logged the first time this happens. The number of dropped events can be checked with {@link EventGate#getDropped()}.
+     * <p>
+     * <b>Note:</b> The batch holds the event objects themselves, not copies. Any players, entities, or other objects an event references are kept in memory until the batch is passed, for up to {@link EventGate#MAX_BATCH_SIZE} events per listener per interval, so long intervals for frequent events should be avoided. By the time the batch is passed, these objects may have changed (for example, a player may have moved on or logged out), so values should be read from the event's own fields (such as the locations of a move event) rather than from the objects it references. Asynchronous events are also collected, and are read on the main thread up to an interval later, so their values should not be assumed to be current either.
+     * @param interval The interval, in ticks, at which events are passed. Use 1 to pass events once per tick
+     * @return The listener mode
+     */
+    public ListenerMode batched(long interval) {
+        return new ListenerMode(ListenerMode.Type.BATCH, interval, EventKey.GLOBAL);
     }
 
     /**
@@ -112,7 +260,12 @@ public class ListenerManager {
      * @param listener The listener to unregister
      */
     public void unregisterListener(ScriptEventListener listener) {
-        removeFromHandlers(listener);
+        ScriptEventDispatcher dispatcher = getDispatcher(listener.getScript(), listener.getEvent(), listener.getPriority());
+        if (dispatcher != null && dispatcher.removeListener(listener) && dispatcher.isEmpty()) {
+            removeFromHandlers(dispatcher);
+            removeDispatcher(dispatcher);
+        }
+        listener.getEventExecutor().stop();
         removeListener(listener);
     }
 
@@ -130,10 +283,11 @@ public class ListenerManager {
     }
 
     /**
-     * Get the event listener for a particular event associated with a script
+     * Get the event listener for a particular event associated with a script. If the script has registered multiple listeners for the event, the first one registered is returned.
      * @param script The script
      * @param eventClass The event
      * @return The {@link ScriptEventListener} associated with the script and event, null if there is none
+     * @see #getEventListeners(Script, Class)
      */
     public ScriptEventListener getEventListener(Script script, Class<? extends Event> eventClass) {
         List<ScriptEventListener> scriptListeners = registeredListeners.get(script);
@@ -146,29 +300,77 @@ public class ListenerManager {
         return null;
     }
 
+    /**
+     * Get all event listeners for a particular event associated with a script
+     * @param script The script
+     * @param eventClass The event
+     * @return An immutable List of {@link ScriptEventListener} associated with the script and event, in the order they were registered. Will return an empty list if there are none
+     */
+    public List<ScriptEventListener> getEventListeners(Script script, Class<? extends Event> eventClass) {
+        List<ScriptEventListener> toReturn = new ArrayList<>();
+        List<ScriptEventListener> scriptListeners = registeredListeners.get(script);
+        if (scriptListeners != null) {
+            for (ScriptEventListener listener : scriptListeners) {
+                if (listener.getEvent().equals(eventClass))
+                    toReturn.add(listener);
+            }
+        }
+        return toReturn;
+    }
+
     /**
      * Unregister all event listeners belonging to a script.
      * @param script The script whose event listeners should be unregistered
      */
     public void unregisterListeners(Script script) {
-        List<ScriptEventListener> associatedListeners = registeredListeners.get(script);
+        List<ScriptEventDispatcher> associatedDispatchers = dispatchers.remove(script);
+        if (associatedDispatchers != null) {
+            for (ScriptEventDispatcher dispatcher : associatedDispatchers) {
+                removeFromHandlers(dispatcher);
+            }
+        }
+
+        List<ScriptEventListener> associatedListeners = registeredListeners.remove(script);
         if (associatedListeners != null) {
-            for (ScriptEventListener eventListener : associatedListeners) {
-                removeFromHandlers(eventListener);
+            for (ScriptEventListener listener : associatedListeners) {
+                listener.getEventExecutor().stop();
             }
-            registeredListeners.remove(script);
         }
     }
 
-    private void removeFromHandlers(ScriptEventListener listener) {
+    private void removeFromHandlers(ScriptEventDispatcher dispatcher) {
         try {
-            Method method = getRegistrationClass(listener.getEvent()).getDeclaredMethod("getHandlerList");
+            Method method = getRegistrationClass(dispatcher.getEvent()).getDeclaredMethod("getHandlerList");
             method.setAccessible(true);
             HandlerList list = (HandlerList) method.invoke(null);
-            list.unregister(listener);
+            list.unregister(dispatcher);
         } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
             //This should not happen, because all events *should* have getHandlerList defined
-            throw new RuntimeException("Unhandled exception when unregistering listener '" + listener.getEvent().getSimpleName() + "'", e);
+            throw new RuntimeException("Unhandled exception when unregistering listener '" + dispatcher.getEvent().getSimpleName() + "'", e);
+        }
+    }
+
+    private ScriptEventDispatcher getDispatcher(Script script, Class<? extends Event> eventClass, EventPriority priority) {
+        List<ScriptEventDispatcher> scriptDispatchers = dispatchers.get(script);
+        if (scriptDispatchers != null) {
+            for (ScriptEventDispatcher dispatcher : scriptDispatchers) {
+                if (dispatcher.getEvent().equals(eventClass) && dispatcher.getPriority() == priority)
+                    return dispatcher;
+            }
+        }
+        return null;
+    }
+
+    private void addDispatcher(ScriptEventDispatcher dispatcher) {
+        dispatchers.computeIfAbsent(dispatcher.getScript(), script -> new ArrayList<>()).add(dispatcher);
+    }
+
+    private void removeDispatcher(ScriptEventDispatcher dispatcher) {
+        List<ScriptEventDispatcher> scriptDispatchers = dispatchers.get(dispatcher.getScript());
+        if (scriptDispatchers != null) {
+            scriptDispatchers.remove(dispatcher);
+            if (scriptDispatchers.isEmpty())
+                dispatchers.remove(dispatcher.getScript());
         }
     }
 
@@ -186,13 +388,15 @@ public class ListenerManager {
     private void removeListener(ScriptEventListener listener) {
         Script script = listener.getScript();
         List<ScriptEventListener> scriptListeners = registeredListeners.get(script);
-        scriptListeners.remove(listener);
-        if (scriptListeners.isEmpty())
-            registeredListeners.remove(script);
+        if (scriptListeners != null) {
+            scriptListeners.remove(listener);
+            if (scriptListeners.isEmpty())
+                registeredListeners.remove(script);
+        }
     }
 
     //Copied from org.bukkit.plugin.SimplePluginManager#getRegistrationClass. Resolves getHandlerList for events, including those where getHandlerList is defined in a superclass (such as BlockBreakEvent)
-    private Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz) {
+    protected Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz) {
         try {
             clazz.getDeclaredMethod("getHandlerList");
             return clazz;
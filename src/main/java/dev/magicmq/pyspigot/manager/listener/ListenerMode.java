@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+/**
+ * A mode that controls which events are passed to a script's event listener, used to reduce the number of calls into the script for high-frequency events. Events dropped by the mode are never passed to the script.
+ * <p>
+ * Modes are immutable and can be shared by multiple listeners; each listener keeps its own counts and pending events.
+ * @see ListenerManager#throttled(int, EventKey)
+ * @see ListenerManager#sampled(int)
+ * @see ListenerManager#debounced(long, EventKey)
+ * @see ListenerManager#batched(long)
+ */
+public class ListenerMode {
+
+    /**
+     * The types of listener modes.
+     */
+    public enum Type {
+
+        /**
+         * At most a certain number of events are passed per second, for each group of events.
+         */
+        THROTTLE,
+
+        /**
+         * One in every N events is passed.
+         */
+        SAMPLE,
+
+        /**
+         * Events are held until no event of the same group has occurred for a window of time. Then, only the last event is passed.
+         */
+        DEBOUNCE,
+
+        /**
+         * Events are collected and passed to the script together, as one list, at a fixed interval.
+         */
+        BATCH
+    }
+
+    private final Type type;
+    private final long amount;
+    private final EventKey key;
+
+    /**
+     *
+     * @param type The type of this mode
+     * @param amount The maximum number of events per second for {@link Type#THROTTLE}, the sampling rate for {@link Type#SAMPLE}, the window length in milliseconds for {@link Type#DEBOUNCE}, or the interval in ticks for {@link Type#BATCH}
+     * @param key What events are grouped by
+     */
+    protected ListenerMode(Type type, long amount, EventKey key) {
+        if (amount <= 0)
+            throw new IllegalArgumentException("Listener mode amount must be greater than 0, got " + amount);
+
+        this.type = type;
+        this.amount = amount;
+        this.key = key;
+    }
+
+    /**
+     * Get the type of this mode.
+     * @return The type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the amount associated with this mode.
+     * @return The maximum number of events per second for {@link Type#THROTTLE}, the sampling rate for {@link Type#SAMPLE}, the window length in milliseconds for {@link Type#DEBOUNCE}, or the interval in ticks for {@link Type#BATCH}
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Get what events are grouped by.
+     * @return The event key
+     */
+    public EventKey getKey() {
+        return key;
+    }
+
+    /**
+     * Prints a representation of this ListenerMode in string format
+     * @return A string representation of the ListenerMode
+     */
+    @Override
+    public String toString() {
+        return String.format("ListenerMode[Type: %s, Amount: %d, Key: %s]", type, amount, key);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.manager.script.Script;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * A single Bukkit listener that passes an event on to all of a script's event listeners for that event and priority.
+ * <p>
+ * Instead of registering every script event listener with Bukkit, all listeners a script registers for the same event and priority share one registration, which keeps the event's handler list small. Listeners are called in the order they were registered.
+ * @see ScriptEventListener
+ */
+public class ScriptEventDispatcher implements Listener, EventExecutor {
+
+    private final Script script;
+    private final Class<? extends Event> event;
+    private final EventPriority priority;
+
+    private volatile ScriptEventListener[] listeners;
+
+    /**
+     *
+     * @param script The script whose listeners this dispatcher calls
+     * @param event The Bukkit event associated with this dispatcher. Should be a {@link Class} of the Bukkit event
+     * @param priority The priority this dispatcher is registered with
+     */
+    protected ScriptEventDispatcher(Script script, Class<? extends Event> event, EventPriority priority) {
+        this.script = script;
+        this.event = event;
+        this.priority = priority;
+        this.listeners = new ScriptEventListener[0];
+    }
+
+    /**
+     * Called internally when the event occurs. Calls each listener in the order they were registered.
+     * @param listener The listener associated with this EventExecutor
+     * @param event The event that occurred
+     */
+    @Override
+    public void execute(Listener listener, Event event) {
+        for (ScriptEventListener scriptEventListener : listeners) {
+            if (scriptEventListener.isIgnoreCancelled() && event instanceof Cancellable cancellable && cancellable.isCancelled())
+                continue;
+
+            try {
+                scriptEventListener.getEventExecutor().execute(scriptEventListener, event);
+            } catch (Throwable throwable) {
+                //Do not let one listener prevent the others from being called
+                PySpigot.get().getLogger().log(Level.SEVERE, "Error when passing event '" + event.getEventName() + "' to a listener of script '" + script.getName() + "'", throwable);
+            }
+        }
+    }
+
+    /**
+     * Get the script associated with this dispatcher.
+     * @return The script associated with this dispatcher
+     */
+    public Script getScript() {
+        return script;
+    }
+
+    /**
+     * Get the Bukkit event associated with this dispatcher.
+     * @return The Bukkit event associated with this dispatcher
+     */
+    public Class<? extends Event> getEvent() {
+        return event;
+    }
+
+    /**
+     * Get the priority this dispatcher is registered with.
+     * @return The priority
+     */
+    public EventPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get the listeners this dispatcher calls.
+     * @return An immutable list of listeners, in the order they are called
+     */
+    public List<ScriptEventListener> getListeners() {
+        return List.of(listeners);
+    }
+
+    /**
+     * Check if this dispatcher has no listeners left.
+     * @return True if there are no listeners, false if otherwise
+     */
+    public boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    /**
+     * Prints a representation of this ScriptEventDispatcher in string format, including the event, the priority, and the number of listeners
+     * @return A string representation of the ScriptEventDispatcher
+     */
+    @Override
+    public String toString() {
+        return String.format("ScriptEventDispatcher[Event: %s, Priority: %s, Listeners: %d]", event.getName(), priority, listeners.length);
+    }
+
+    /**
+     * Add a listener, to be called after all listeners already added.
+     * @param listener The listener to add
+     */
+    protected synchronized void addListener(ScriptEventListener listener) {
+        ScriptEventListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Remove a listener.
+     * @param listener The listener to remove
+     * @return True if the listener was removed, false if it was not added to this dispatcher
+     */
+    protected synchronized boolean removeListener(ScriptEventListener listener) {
+        List<ScriptEventListener> updated = new ArrayList<>(Arrays.asList(listeners));
+        boolean removed = updated.remove(listener);
+        if (removed)
+            listeners = updated.toArray(new ScriptEventListener[0]);
+        return removed;
+    }
+}
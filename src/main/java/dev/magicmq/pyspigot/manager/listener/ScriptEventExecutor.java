@@ -17,23 +17,39 @@
 package dev.magicmq.pyspigot.manager.listener;
 
 import dev.magicmq.pyspigot.event.ScriptExceptionEvent;
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.bukkit.event.Event;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.EventExecutor;
 import org.python.core.Py;
+import org.python.core.JyAttribute;
 import org.python.core.PyException;
 import org.python.core.PyObject;
+import org.python.core.PyObjectDerived;
+import org.python.core.PyProxy;
+import org.python.core.PyType;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents an event executor for script event listeners.
+ * <p>
+ * The executor is specialized for its event class when it is created. Checks that can never fail for the event class (such as the type check for a final event class with its own handler list) are skipped. Events whose class is exactly the event class (the common case, even for non-final classes such as PlayerMoveEvent) pass the type check without a hierarchy lookup and are wrapped for Jython directly with the event class's proxy type, which is looked up once when the executor is created. Events of a subclass fall back to the full type check and to {@link Py#java2py(Object)}. Events that do not pass the listener's {@link EventFilter}, or that are dropped or held by the listener's {@link ListenerMode}, are not wrapped.
  * @see org.bukkit.plugin.EventExecutor
  */
 public class ScriptEventExecutor implements EventExecutor {
 
     private final ScriptEventListener scriptEventListener;
     private final Class<? extends Event> eventClass;
+    private final boolean checkType;
+    private final boolean checkExceptionEvent;
+    private final PyType eventType;
+    private final EventGate gate;
 
     /**
      *
@@ -43,6 +59,18 @@ public class ScriptEventExecutor implements EventExecutor {
     public ScriptEventExecutor(ScriptEventListener scriptEventListener, Class<? extends Event> eventClass) {
         this.scriptEventListener = scriptEventListener;
         this.eventClass = eventClass;
+
+        boolean isFinal = Modifier.isFinal(eventClass.getModifiers());
+        //Only instances of the event class reach its own handler list, and a final class has no subclasses
+        this.checkType = !isFinal || ListenerManager.get().getRegistrationClass(eventClass) != eventClass;
+        this.checkExceptionEvent = eventClass.isAssignableFrom(ScriptExceptionEvent.class) || ScriptExceptionEvent.class.isAssignableFrom(eventClass);
+        //Events defined in scripts are proxies for Python objects, and must go through Py.java2py to get the Python object
+        if (!Modifier.isAbstract(eventClass.getModifiers()) && !PyProxy.class.isAssignableFrom(eventClass))
+            this.eventType = PyType.fromClass(eventClass);
+        else
+            this.eventType = null;
+
+        this.gate = scriptEventListener.getMode() != null ? new EventGate(scriptEventListener.getMode(), this) : null;
     }
 
     /**
@@ -51,24 +79,102 @@ public class ScriptEventExecutor implements EventExecutor {
      * @param event The event that occurred
      */
     public void execute(Listener listener, Event event) {
-        if (eventClass.isAssignableFrom(event.getClass())) {
-            if (event instanceof ScriptExceptionEvent scriptExceptionEvent) {
-                Script script = scriptExceptionEvent.getScript();
-                if (scriptEventListener.getScript().equals(script)) {
-                    String listenerFunctionName = scriptEventListener.getListenerFunction().__code__.co_name;
-                    String exceptionFunctionName = scriptExceptionEvent.getException().traceback.tb_frame.f_code.co_name;
-                    if (listenerFunctionName.equals(exceptionFunctionName)) {
-                        return;
-                    }
+        //Most events are exactly of the registered class, so check that before walking the class hierarchy
+        if (checkType && event.getClass() != eventClass && !eventClass.isAssignableFrom(event.getClass()))
+            return;
+
+        EventFilter filter = scriptEventListener.getFilter();
+        if (filter != null && !filter.test(event))
+            return;
+
+        if (checkExceptionEvent && event instanceof ScriptExceptionEvent scriptExceptionEvent) {
+            Script script = scriptExceptionEvent.getScript();
+            if (scriptEventListener.getScript().equals(script)) {
+                String listenerFunctionName = scriptEventListener.getListenerFunction().__code__.co_name;
+                String exceptionFunctionName = scriptExceptionEvent.getException().traceback.tb_frame.f_code.co_name;
+                if (listenerFunctionName.equals(exceptionFunctionName)) {
+                    return;
                 }
             }
+        }
 
-            try {
-                PyObject parameter = Py.java2py(event);
-                scriptEventListener.getListenerFunction().__call__(parameter);
-            } catch (PyException exception) {
-                ScriptManager.get().handleScriptException(scriptEventListener.getScript(), exception, "Error when executing event listener");
-            }
+        if (gate != null && !gate.offer(event))
+            return;
+
+        call(event);
+    }
+
+    /**
+     * Get the {@link ScriptEventListener} associated with this ScriptEventExecutor.
+     * @return The ScriptEventListener associated with this ScriptEventExecutor
+     */
+    public ScriptEventListener getScriptEventListener() {
+        return scriptEventListener;
+    }
+
+    /**
+     * Get the {@link EventGate} that applies the listener's mode.
+     * @return The event gate, or null if the listener has no mode
+     */
+    public EventGate getGate() {
+        return gate;
+    }
+
+    /**
+     * Pass an event to the script, without checking it first.
+     * @param event The event to pass
+     */
+    protected void call(Event event) {
+        long start = ProfileManager.get().begin(scriptEventListener.getScript(), CallType.EVENT_LISTENER);
+        try {
+            scriptEventListener.getListenerFunction().__call__(wrap(event));
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(scriptEventListener.getScript(), exception, "Error when executing event listener");
+        } finally {
+            ProfileManager.get().end(scriptEventListener.getScript(), CallType.EVENT_LISTENER, start);
+        }
+    }
+
+    private PyObject wrap(Event event) {
+        if (eventType == null || event.getClass() != eventClass)
+            return Py.java2py(event);
+
+        //The same as PyJavaType.wrapJavaObject, without looking up the type again
+        PyObject wrapped = new PyObjectDerived(eventType);
+        JyAttribute.setAttr(wrapped, JyAttribute.JAVA_PROXY_ATTR, event);
+        return wrapped;
+    }
+
+    /**
+     * Pass a batch of events to the script as a single list, without checking them first.
+     * @param events The events to pass, in the order they occurred
+     */
+    protected void callBatch(List<Event> events) {
+        long start = ProfileManager.get().begin(scriptEventListener.getScript(), CallType.EVENT_LISTENER);
+        try {
+            //The list is wrapped as a whole, each event is only wrapped when the script accesses it
+            PyObject parameter = Py.java2py(Collections.unmodifiableList(events));
+            scriptEventListener.getListenerFunction().__call__(parameter);
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(scriptEventListener.getScript(), exception, "Error when executing event listener");
+        } finally {
+            ProfileManager.get().end(scriptEventListener.getScript(), CallType.EVENT_LISTENER, start);
         }
     }
+
+    /**
+     * Start applying the listener's mode. Called internally when the listener is registered.
+     */
+    protected void start() {
+        if (gate != null)
+            gate.start();
+    }
+
+    /**
+     * Stop applying the listener's mode. Called internally when the listener is unregistered.
+     */
+    protected void stop() {
+        if (gate != null)
+            gate.stop();
+    }
 }
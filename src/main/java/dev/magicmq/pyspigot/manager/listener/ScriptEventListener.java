@@ -18,11 +18,14 @@ package dev.magicmq.pyspigot.manager.listener;
 
 import dev.magicmq.pyspigot.manager.script.Script;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.python.core.PyFunction;
 
 /**
- * A dummy listener object that represents all events a script is currently listening to.
+ * A listener object that represents a script function listening to an event.
+ * <p>
+ * Script event listeners are not registered with Bukkit individually. Instead, they are called by the {@link ScriptEventDispatcher} for the script, event, and priority.
  * @see org.bukkit.event.Listener
  */
 public class ScriptEventListener implements Listener {
@@ -30,6 +33,10 @@ public class ScriptEventListener implements Listener {
     private final Script script;
     private final PyFunction listenerFunction;
     private final Class<? extends Event> event;
+    private final EventPriority priority;
+    private final boolean ignoreCancelled;
+    private final EventFilter filter;
+    private final ListenerMode mode;
     private final ScriptEventExecutor eventExecutor;
 
     /**
@@ -37,11 +44,19 @@ public class ScriptEventListener implements Listener {
      * @param script The script listening to events within this listener
      * @param listenerFunction The script function that should be called when the event occurs
      * @param event The Bukkit event associated with this listener. Should be a {@link Class} of the Bukkit event
+     * @param priority The priority of the listener relative to other listeners
+     * @param ignoreCancelled If true, the listener will not be called if the event has been previously cancelled
+     * @param filter The filter events must pass before the listener is called, or null if all events should be passed to the listener
+     * @param mode The mode that controls which events are passed to the listener, or null if all events should be passed to the listener
      */
-    public ScriptEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event) {
+    public ScriptEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event, EventPriority priority, boolean ignoreCancelled, EventFilter filter, ListenerMode mode) {
         this.script = script;
         this.listenerFunction = listenerFunction;
         this.event = event;
+        this.priority = priority;
+        this.ignoreCancelled = ignoreCancelled;
+        this.filter = filter;
+        this.mode = mode;
         this.eventExecutor = new ScriptEventExecutor(this, event);
     }
 
@@ -71,6 +86,38 @@ public class ScriptEventListener implements Listener {
         return event;
     }
 
+    /**
+     * Get the priority of this listener relative to other listeners.
+     * @return The priority of this listener
+     */
+    public EventPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get if this listener ignores events that have been previously cancelled.
+     * @return True if cancelled events are ignored, false if otherwise
+     */
+    public boolean isIgnoreCancelled() {
+        return ignoreCancelled;
+    }
+
+    /**
+     * Get the filter events must pass before this listener is called.
+     * @return The filter, or null if all events are passed to this listener
+     */
+    public EventFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Get the mode that controls which events are passed to this listener.
+     * @return The listener mode, or null if all events are passed to this listener
+     */
+    public ListenerMode getMode() {
+        return mode;
+    }
+
     /**
      * Get the {@link ScriptEventExecutor} associated with this script event listener.
      * @return The {@link ScriptEventExecutor} associated with this script event listener
@@ -80,11 +127,11 @@ public class ScriptEventListener implements Listener {
     }
 
     /**
-     * Prints a representation of this ScriptEventListener in string format, including the event being listened to by the listener
+     * Prints a representation of this ScriptEventListener in string format, including the event being listened to by the listener and its priority
      * @return A string representation of the ScriptEventListener
      */
     @Override
     public String toString() {
-        return String.format("ScriptEventListener[Event: %s]", event.getName());
+        return String.format("ScriptEventListener[Event: %s, Priority: %s]", event.getName(), priority);
     }
 }
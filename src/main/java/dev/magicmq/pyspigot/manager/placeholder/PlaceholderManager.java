@@ -18,9 +18,13 @@ package dev.magicmq.pyspigot.manager.placeholder;
 
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.util.ScriptUtils;
+import me.clip.placeholderapi.PlaceholderAPIPlugin;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.python.core.PyFunction;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * Manager to interface with PlaceholderAPI. Primarily used by scripts to register and unregister placeholder expansions.
@@ -104,6 +108,20 @@ public class PlaceholderManager {
         return registeredPlaceholders.get(script);
     }
 
+    /**
+     * Get all placeholder expansions belonging to a script that are registered with PlaceholderAPI, regardless of whether they are tracked by this manager. Used to find placeholder expansions that were not unregistered when a script was unloaded.
+     * @param script The script to get placeholder expansions for
+     * @return A List of {@link ScriptPlaceholder} registered with PlaceholderAPI for the script. Will return an empty list if there are none
+     */
+    public List<ScriptPlaceholder> getRegisteredPlaceholders(Script script) {
+        List<ScriptPlaceholder> toReturn = new ArrayList<>();
+        for (PlaceholderExpansion expansion : PlaceholderAPIPlugin.getInstance().getLocalExpansionManager().getExpansions()) {
+            if (expansion instanceof ScriptPlaceholder placeholder && placeholder.getScript() == script)
+                toReturn.add(placeholder);
+        }
+        return toReturn;
+    }
+
     /**
      * Get the singleton instance of this PlaceholderManager.
      * @return The instance
@@ -16,6 +16,8 @@
 
 package dev.magicmq.pyspigot.manager.placeholder;
 
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
@@ -103,6 +105,7 @@ public class ScriptPlaceholder extends PlaceholderExpansion {
      */
     @Override
     public String onRequest(OfflinePlayer player, String params) {
+        long start = ProfileManager.get().begin(script, CallType.PLACEHOLDER);
         try {
             PyObject[] parameters = Py.javas2pys(player, params);
             PyObject result = function.__call__(parameters[0], parameters[1]);
@@ -111,6 +114,8 @@ public class ScriptPlaceholder extends PlaceholderExpansion {
             }
         } catch (PyException exception) {
             ScriptManager.get().handleScriptException(script, exception, "Error when executing placeholder '" + getIdentifier() + "'");
+        } finally {
+            ProfileManager.get().end(script, CallType.PLACEHOLDER, start);
         }
         return null;
     }
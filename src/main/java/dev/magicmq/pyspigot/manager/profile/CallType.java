@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.profile;
+
+/**
+ * An enum representing the type of entry point through which a script was called.
+ */
+public enum CallType {
+
+    /**
+     * An event listener.
+     */
+    EVENT_LISTENER("Event listeners"),
+
+    /**
+     * A task, including repeating tasks and sync callbacks.
+     */
+    TASK("Tasks"),
+
+    /**
+     * A command.
+     */
+    COMMAND("Commands"),
+
+    /**
+     * A command tab completion.
+     */
+    TAB_COMPLETE("Tab completions"),
+
+    /**
+     * A placeholder request.
+     */
+    PLACEHOLDER("Placeholders"),
+
+    /**
+     * A packet listener.
+     */
+    PACKET_LISTENER("Packet listeners"),
+
+    /**
+     * A redis pub/sub listener.
+     */
+    REDIS_LISTENER("Redis listeners");
+
+    private final String displayName;
+
+    CallType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Get a human-readable name for this call type.
+     * @return The display name of this call type
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.profile;
+
+/**
+ * The result of estimating the memory retained by a script.
+ * @see MemoryEstimator
+ */
+public class MemoryEstimate {
+
+    private final long bytes;
+    private final long objects;
+    private final boolean complete;
+    private final long timestamp;
+
+    /**
+     *
+     * @param bytes The estimated number of bytes retained
+     * @param objects The number of objects counted
+     * @param complete True if all reachable objects were counted, false if the walk was stopped early because it reached its time limit
+     */
+    public MemoryEstimate(long bytes, long objects, boolean complete) {
+        this.bytes = bytes;
+        this.objects = objects;
+        this.complete = complete;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the estimated number of bytes retained.
+     * @return The estimated number of bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the number of objects counted.
+     * @return The number of objects
+     */
+    public long getObjects() {
+        return objects;
+    }
+
+    /**
+     * Get if all reachable objects were counted. If false, the estimate is a lower bound.
+     * @return True if the estimate is complete, false if otherwise
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Get the time at which this estimate was made.
+     * @return The time, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Prints a representation of this MemoryEstimate in string format, including the size in kilobytes and the number of objects counted
+     * @return A string representation of the MemoryEstimate
+     */
+    @Override
+    public String toString() {
+        return String.format("%s%d KB (%d objects)", complete ? "" : "at least ", bytes / 1024, objects);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.profile;
+
+import org.python.core.PyBuiltinCallable;
+import org.python.core.PyJavaPackage;
+import org.python.core.PyType;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the memory retained by a script by walking the object graph reachable from a set of roots, such as the script's interpreter locals and its registered callbacks.
+ * <p>
+ * Only objects that can belong to a script are counted: Python objects, PySpigot objects, arrays, and objects from the Java standard library (strings, boxed values, and collections). Objects from the server or from other libraries are neither counted nor walked, since they are not owned by the script. Python types, builtins, and Java packages are shared by all interpreters and are skipped as well. Sizes are estimated from each class's field layout, assuming a 64-bit JVM with compressed references.
+ * <p>
+ * Objects are walked on the calling thread while scripts may still be running, so the result is an estimate. The walk stops once its time limit is reached, in which case the result is marked as incomplete.
+ */
+public final class MemoryEstimator {
+
+    private static final int HEADER_SIZE = 12;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+
+    private static final Map<Class<?>, ClassLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private MemoryEstimator() {}
+
+    /**
+     * Estimate the memory retained by a set of roots.
+     * @param roots The objects to start walking from
+     * @param excluded Objects that should not be counted or walked, such as objects belonging to other scripts
+     * @param timeLimit The maximum time, in nanoseconds, to spend walking
+     * @return The estimate
+     */
+    public static MemoryEstimate estimate(Collection<?> roots, Collection<?> excluded, long timeLimit) {
+        long deadline = System.nanoTime() + timeLimit;
+
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        visited.addAll(excluded);
+        ArrayDeque<Object> queue = new ArrayDeque<>(roots);
+
+        long bytes = 0;
+        long objects = 0;
+        while (!queue.isEmpty()) {
+            //Checking the time is relatively expensive, so only check every so often
+            if ((objects & 1023) == 0 && System.nanoTime() > deadline)
+                return new MemoryEstimate(bytes, objects, false);
+
+            Object object = queue.poll();
+            if (!visited.add(object) || !isCounted(object.getClass()))
+                continue;
+
+            bytes += getShallowSize(object);
+            objects++;
+            addChildren(object, queue);
+        }
+        return new MemoryEstimate(bytes, objects, true);
+    }
+
+    private static boolean isCounted(Class<?> clazz) {
+        if (clazz.isArray())
+            return true;
+
+        if (Class.class == clazz || ClassLoader.class.isAssignableFrom(clazz) || Thread.class.isAssignableFrom(clazz) || Reference.class.isAssignableFrom(clazz))
+            return false;
+
+        String name = clazz.getName();
+        if (name.startsWith("java."))
+            return true;
+        else if (name.startsWith("org.python."))
+            return !PyType.class.isAssignableFrom(clazz) && !PyBuiltinCallable.class.isAssignableFrom(clazz) && !PyJavaPackage.class.isAssignableFrom(clazz);
+        else
+            return name.startsWith("dev.magicmq.pyspigot.");
+    }
+
+    private static long getShallowSize(Object object) {
+        Class<?> clazz = object.getClass();
+        if (clazz.isArray()) {
+            Class<?> component = clazz.getComponentType();
+            return align(ARRAY_HEADER_SIZE + (long) Array.getLength(object) * getFieldSize(component));
+        }
+
+        long size = getLayout(clazz).size;
+        //Strings are not walked, so count their backing array here
+        if (object instanceof String string)
+            size += align(ARRAY_HEADER_SIZE + string.length());
+        return size;
+    }
+
+    private static void addChildren(Object object, ArrayDeque<Object> queue) {
+        try {
+            if (object instanceof Object[] array) {
+                for (Object element : array) {
+                    if (element != null)
+                        queue.add(element);
+                }
+            } else if (object.getClass().getName().startsWith("java.")) {
+                //Fields of standard library classes cannot be read reflectively, so only walk collections through their public API
+                if (object instanceof Map<?, ?> map) {
+                    for (Map.Entry<?, ?> entry : map.entrySet()) {
+                        if (entry.getKey() != null)
+                            queue.add(entry.getKey());
+                        if (entry.getValue() != null)
+                            queue.add(entry.getValue());
+                    }
+                } else if (object instanceof Collection<?> collection) {
+                    for (Object element : collection) {
+                        if (element != null)
+                            queue.add(element);
+                    }
+                }
+            } else if (!object.getClass().isArray()) {
+                for (Field field : getLayout(object.getClass()).referenceFields) {
+                    Object value = field.get(object);
+                    if (value != null)
+                        queue.add(value);
+                }
+            }
+        } catch (RuntimeException | IllegalAccessException ignored) {
+            //The object was modified concurrently or could not be read, count it without its children
+        }
+    }
+
+    private static ClassLayout getLayout(Class<?> clazz) {
+        return LAYOUTS.computeIfAbsent(clazz, ClassLayout::new);
+    }
+
+    private static int getFieldSize(Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        else if (type == int.class || type == float.class)
+            return 4;
+        else if (type == short.class || type == char.class)
+            return 2;
+        else if (type == byte.class || type == boolean.class)
+            return 1;
+        else
+            return REFERENCE_SIZE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static class ClassLayout {
+
+        private final long size;
+        private final List<Field> referenceFields;
+
+        private ClassLayout(Class<?> clazz) {
+            long size = HEADER_SIZE;
+            List<Field> referenceFields = new ArrayList<>();
+            for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+                boolean readable = !current.getName().startsWith("java.");
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+
+                    size += getFieldSize(field.getType());
+                    if (readable && !field.getType().isPrimitive()) {
+                        try {
+                            field.setAccessible(true);
+                            referenceFields.add(field);
+                        } catch (RuntimeException ignored) {}
+                    }
+                }
+            }
+            this.size = align(size);
+            this.referenceFields = referenceFields;
+        }
+    }
+}
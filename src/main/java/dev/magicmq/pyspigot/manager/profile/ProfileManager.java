@@ -0,0 +1,252 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.profile;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.manager.command.CommandManager;
+import dev.magicmq.pyspigot.manager.database.DatabaseManager;
+import dev.magicmq.pyspigot.manager.listener.ListenerManager;
+import dev.magicmq.pyspigot.manager.placeholder.PlaceholderManager;
+import dev.magicmq.pyspigot.manager.protocol.ProtocolManager;
+import dev.magicmq.pyspigot.manager.redis.RedisManager;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptContext;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.manager.task.TaskManager;
+import org.bukkit.Bukkit;
+import org.python.core.PySystemState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Manager that accounts for the time scripts spend in calls made into them from Java, such as event listeners, tasks, and commands.
+ * <p>
+ * Every entry point into a script calls {@link #begin(Script, CallType)} before calling the script's function and {@link #end(Script, CallType, long)} after, which records the call in the script's {@link ScriptProfile} and binds the script to the calling thread for the duration of the call (see {@link ScriptContext}). Calls made on the main thread are also checked by the {@link Watchdog}.
+ */
+public class ProfileManager {
+
+    private static final long MEMORY_ESTIMATE_TIME_LIMIT = TimeUnit.SECONDS.toNanos(2L);
+
+    private static ProfileManager manager;
+
+    private final Set<ScriptProfile> profiles;
+    private final ScheduledExecutorService snapshotter;
+    private final ExecutorService memoryEstimator;
+    private final SamplingProfiler samplingProfiler;
+    private final Watchdog watchdog;
+
+    private ProfileManager() {
+        profiles = ConcurrentHashMap.newKeySet();
+        snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PySpigot Profiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotter.scheduleAtFixedRate(this::snapshot, 1L, 1L, TimeUnit.SECONDS);
+        memoryEstimator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PySpigot Memory Estimator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        samplingProfiler = new SamplingProfiler();
+        watchdog = new Watchdog();
+    }
+
+    /**
+     * Called internally just before a script's function is called.
+     * @param script The script being called
+     * @param type The entry point through which the script is being called
+     * @return A timestamp that should be passed to {@link #end(Script, CallType, long)} once the call returns
+     */
+    public long begin(Script script, CallType type) {
+        ScriptContext.enter(script);
+        long start = System.nanoTime();
+        if (Bukkit.isPrimaryThread())
+            watchdog.enter(script, type, start);
+        return start;
+    }
+
+    /**
+     * Called internally once a call to a script's function returns, whether it returned normally or threw an exception.
+     * @param script The script that was called
+     * @param type The entry point through which the script was called
+     * @param start The timestamp returned by {@link #begin(Script, CallType)}
+     */
+    public void end(Script script, CallType type, long start) {
+        long elapsed = System.nanoTime() - start;
+        ScriptContext.exit();
+
+        boolean mainThread = Bukkit.isPrimaryThread();
+
+        ScriptProfile profile = script.getProfile();
+        if (profile != null)
+            profile.record(type, mainThread, elapsed);
+
+        if (mainThread)
+            watchdog.exit(script, type, elapsed);
+    }
+
+    /**
+     * Create a new profile for a script. Called internally when a script is loaded.
+     * @return The new profile
+     */
+    public ScriptProfile newProfile() {
+        ScriptProfile profile = new ScriptProfile();
+        profiles.add(profile);
+        return profile;
+    }
+
+    /**
+     * Stop taking snapshots of a profile. Called internally when a script is unloaded.
+     * @param profile The profile to remove
+     */
+    public void removeProfile(ScriptProfile profile) {
+        if (profile != null)
+            profiles.remove(profile);
+    }
+
+    /**
+     * Estimate the memory retained by a script, walking from its interpreter's locals and its registered listeners, tasks, commands, and other callbacks. The walk runs asynchronously and is limited in time, and the result is also stored in the script's {@link ScriptProfile}.
+     * <p>
+     * This must be called from the main thread.
+     * @param script The script to estimate memory for
+     * @return A future that completes with the estimate
+     * @see MemoryEstimator
+     */
+    public CompletableFuture<MemoryEstimate> estimateMemory(Script script) {
+        List<Object> roots = getMemoryRoots(script);
+
+        //Do not count objects that are shared with or belong to other scripts
+        List<Object> excluded = new ArrayList<>(ScriptManager.get().getSharedModuleCache().getModules());
+        for (Script other : ScriptManager.get().getLoadedScripts()) {
+            if (other != script)
+                excluded.add(other);
+        }
+
+        //The script object and its system state are reached through callbacks, but the modules and builtins they hold are mostly not the script's own data
+        excluded.add(script);
+        if (script.getInterpreter() != null) {
+            PySystemState sys = script.getInterpreter().getSystemState();
+            excluded.add(sys);
+            excluded.add(sys.modules);
+            excluded.add(sys.getBuiltins());
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            MemoryEstimate estimate = MemoryEstimator.estimate(roots, excluded, MEMORY_ESTIMATE_TIME_LIMIT);
+            ScriptProfile profile = script.getProfile();
+            if (profile != null)
+                profile.setMemoryEstimate(estimate);
+            return estimate;
+        }, memoryEstimator);
+    }
+
+    /**
+     * Get the sampling profiler, which can be started and stopped at runtime.
+     * @return The sampling profiler
+     */
+    public SamplingProfiler getSamplingProfiler() {
+        return samplingProfiler;
+    }
+
+    /**
+     * Get the watchdog, which reports main thread calls into scripts that exceed their budget.
+     * @return The watchdog
+     */
+    public Watchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * Reload profiling options from the config.
+     */
+    public void reload() {
+        watchdog.reload();
+    }
+
+    /**
+     * Stop taking snapshots of all profiles, and stop the sampling profiler and the watchdog.
+     */
+    public void shutdown() {
+        samplingProfiler.stop();
+        watchdog.shutdown();
+        memoryEstimator.shutdownNow();
+        snapshotter.shutdownNow();
+        profiles.clear();
+    }
+
+    private List<Object> getMemoryRoots(Script script) {
+        List<Object> roots = new ArrayList<>();
+        if (script.getInterpreter() != null)
+            roots.add(script.getInterpreter().getLocals());
+
+        addRoots(roots, ListenerManager.get().getListeners(script));
+        addRoots(roots, TaskManager.get().getTasks(script));
+        addRoots(roots, CommandManager.get().getCommands(script));
+        addRoots(roots, DatabaseManager.get().getConnections(script));
+        addRoots(roots, RedisManager.get().getRedisClients(script));
+
+        if (PySpigot.get().isProtocolLibAvailable()) {
+            addRoots(roots, ProtocolManager.get().getPacketListeners(script));
+            addRoots(roots, ProtocolManager.get().async().getAsyncPacketListeners(script));
+        }
+
+        if (PySpigot.get().isPlaceholderApiAvailable()) {
+            Object placeholder = PlaceholderManager.get().getPlaceholder(script);
+            if (placeholder != null)
+                roots.add(placeholder);
+        }
+
+        return roots;
+    }
+
+    private void addRoots(List<Object> roots, Collection<?> toAdd) {
+        if (toAdd != null)
+            roots.addAll(toAdd);
+    }
+
+    private void snapshot() {
+        try {
+            for (ScriptProfile profile : profiles) {
+                profile.snapshot();
+            }
+        } catch (Throwable throwable) {
+            //Do not let an exception cancel future snapshots
+            PySpigot.get().getLogger().log(Level.SEVERE, "Error when taking a snapshot of script profiles", throwable);
+        }
+    }
+
+    /**
+     * Get the singleton instance of this ProfileManager.
+     * @return The instance
+     */
+    public static ProfileManager get() {
+        if (manager == null)
+            manager = new ProfileManager();
+        return manager;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.profile;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.config.PluginConfig;
+import dev.magicmq.pyspigot.util.ScriptUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A sampling profiler that periodically captures the stack of the main thread (and optionally of async threads running script code) while scripts are running, and maps the captured stacks back to Python functions and lines.
+ * <p>
+ * Only frames of script code are kept, so each sample is a stack of Python functions, rooted at "main" or "async" depending on the thread the sample was taken from. Samples that contain no script code are discarded. Results are written in the collapsed stack format (one stack per line, frames separated by semicolons, followed by the number of samples), which can be rendered as a flame graph with common tools.
+ * <p>
+ * When async threads are sampled, only Bukkit scheduler workers and threads that were found running script code are captured on each sample. All threads are checked for script code once per second to find these threads.
+ * <p>
+ * The time taken to capture each sample is measured, and the delay until the next sample is increased if needed so that the profiler spends no more than 1% of its time sampling. Capturing the stacks of async threads stops all threads at a safepoint. The sampler waits for this pause to complete, so the pause, including the time taken for threads to reach the safepoint, is part of the measured time.
+ * @see ScriptUtils#getPythonFrameName(StackTraceElement)
+ */
+public class SamplingProfiler {
+
+    private static final double MAX_OVERHEAD = 0.01;
+    private static final long DISCOVERY_INTERVAL = 1000000000L;
+    private static final String SCHEDULER_THREAD_PREFIX = "Craft Scheduler Thread";
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final Map<String, Long> stacks;
+    private final ThreadMXBean threadBean;
+    private final Set<Long> asyncThreads;
+
+    private volatile Thread samplerThread;
+    private Thread mainThread;
+    private boolean sampleAsync;
+    private long interval;
+    private long startTime;
+    private long samples;
+    private long samplingNanos;
+    private long lastDiscovery;
+
+    protected SamplingProfiler() {
+        this.stacks = new HashMap<>();
+        this.threadBean = ManagementFactory.getThreadMXBean();
+        this.asyncThreads = new HashSet<>();
+    }
+
+    /**
+     * Start sampling. Any results from a previous run are discarded. This must be called from the main thread.
+     * @param sampleAsync True if stacks of Bukkit scheduler workers and other threads running script code should also be sampled, false if only the main thread should be sampled
+     * @return True if sampling was started, false if the profiler was already running
+     */
+    public synchronized boolean start(boolean sampleAsync) {
+        if (samplerThread != null)
+            return false;
+
+        stacks.clear();
+        this.mainThread = Thread.currentThread();
+        this.sampleAsync = sampleAsync;
+        this.interval = Math.max(1L, PluginConfig.getSamplingProfilerInterval());
+        this.startTime = System.nanoTime();
+        this.samples = 0;
+        this.samplingNanos = 0;
+        this.lastDiscovery = 0;
+        asyncThreads.clear();
+
+        samplerThread = new Thread(this::sample, "PySpigot Sampling Profiler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        return true;
+    }
+
+    /**
+     * Stop sampling. Results are kept until sampling is started again.
+     * @return True if sampling was stopped, false if the profiler was not running
+     */
+    public synchronized boolean stop() {
+        if (samplerThread == null)
+            return false;
+
+        samplerThread.interrupt();
+        samplerThread = null;
+        return true;
+    }
+
+    /**
+     * Check if the profiler is currently sampling.
+     * @return True if the profiler is running, false if otherwise
+     */
+    public boolean isRunning() {
+        return samplerThread != null;
+    }
+
+    /**
+     * Get the number of samples taken since sampling was last started.
+     * @return The number of samples
+     */
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Get the fraction of time spent taking samples since sampling was last started, including the time threads were stopped so that their stacks could be captured.
+     * @return The overhead, between 0 and 1
+     */
+    public synchronized double getOverhead() {
+        long elapsed = System.nanoTime() - startTime;
+        return elapsed > 0 ? (double) samplingNanos / elapsed : 0;
+    }
+
+    /**
+     * Get the sampled stacks in collapsed stack format.
+     * @return A list of lines, each containing a stack and the number of times it was sampled
+     */
+    public synchronized List<String> getCollapsedStacks() {
+        List<String> lines = new ArrayList<>();
+        stacks.forEach((stack, count) -> lines.add(stack + " " + count));
+        lines.sort(null);
+        return lines;
+    }
+
+    /**
+     * Write the sampled stacks, in collapsed stack format, to a new file in the profiles folder.
+     * @return The path of the file that was written
+     * @throws IOException If the file could not be written
+     */
+    public Path save() throws IOException {
+        Path folder = PySpigot.get().getDataFolderPath().resolve("profiles");
+        Files.createDirectories(folder);
+        Path file = folder.resolve("sampler_" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".txt");
+        Files.write(file, getCollapsedStacks());
+        return file;
+    }
+
+    private void sample() {
+        Thread current = Thread.currentThread();
+        while (!current.isInterrupted()) {
+            long begin = System.nanoTime();
+
+            record(current, "main", mainThread.getStackTrace());
+            if (sampleAsync)
+                sampleAsyncThreads(current, begin);
+
+            long cost = System.nanoTime() - begin;
+            synchronized (this) {
+                samples++;
+                samplingNanos += cost;
+            }
+
+            //Back off if sampling is too expensive to stay under the overhead limit
+            long delay = Math.max(interval, (long) (cost / MAX_OVERHEAD / 1000000D));
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void sampleAsyncThreads(Thread sampler, long now) {
+        if (now - lastDiscovery >= DISCOVERY_INTERVAL) {
+            lastDiscovery = now;
+            discoverAsyncThreads(sampler);
+            return;
+        }
+
+        if (asyncThreads.isEmpty())
+            return;
+
+        long[] ids = new long[asyncThreads.size()];
+        int i = 0;
+        for (long id : asyncThreads) {
+            ids[i++] = id;
+        }
+        for (ThreadInfo info : threadBean.getThreadInfo(ids, Integer.MAX_VALUE)) {
+            //The thread has ended since it was discovered
+            if (info != null)
+                record(sampler, "async", info.getStackTrace());
+        }
+    }
+
+    private void discoverAsyncThreads(Thread sampler) {
+        asyncThreads.clear();
+        for (ThreadInfo info : threadBean.getThreadInfo(threadBean.getAllThreadIds(), Integer.MAX_VALUE)) {
+            if (info == null || info.getThreadId() == mainThread.getId() || info.getThreadId() == sampler.getId())
+                continue;
+
+            StackTraceElement[] trace = info.getStackTrace();
+            if (info.getThreadName().startsWith(SCHEDULER_THREAD_PREFIX) || hasScriptFrame(trace)) {
+                asyncThreads.add(info.getThreadId());
+                record(sampler, "async", trace);
+            }
+        }
+    }
+
+    private boolean hasScriptFrame(StackTraceElement[] trace) {
+        for (StackTraceElement element : trace) {
+            if (element.getClassName().contains("org.python.pycode"))
+                return true;
+        }
+        return false;
+    }
+
+    private void record(Thread sampler, String root, StackTraceElement[] trace) {
+        StringBuilder stack = null;
+        for (int i = trace.length - 1; i >= 0; i--) {
+            String frame = ScriptUtils.getPythonFrameName(trace[i]);
+            if (frame != null) {
+                if (stack == null)
+                    stack = new StringBuilder(root);
+                stack.append(';').append(frame);
+            }
+        }
+
+        if (stack == null)
+            return;
+
+        synchronized (this) {
+            //Discard samples taken after sampling was stopped
+            if (samplerThread == sampler)
+                stacks.merge(stack.toString(), 1L, Long::sum);
+        }
+    }
+}
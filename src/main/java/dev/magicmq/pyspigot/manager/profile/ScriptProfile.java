@@ -0,0 +1,173 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.profile;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the number of calls into a script and the time spent in those calls, split by {@link CallType} and by whether the call was made on the main thread or on an async thread.
+ * <p>
+ * Calls are recorded into cumulative counters, which are cheap to update from any thread. Once per second, the {@link ProfileManager} takes a snapshot of the counters, and the values for a window are computed as the difference between the latest snapshot and the snapshot taken at the start of the window. Up to {@link #MAX_WINDOW} seconds of history are kept.
+ */
+public class ScriptProfile {
+
+    /**
+     * The largest window, in seconds, that can be queried.
+     */
+    public static final int MAX_WINDOW = 300;
+
+    private static final int SLOTS = CallType.values().length * 2;
+
+    private final LongAdder[] calls;
+    private final LongAdder[] nanos;
+    private final long[][] history;
+
+    private int head;
+    private int size;
+    private int overruns;
+    private volatile MemoryEstimate memoryEstimate;
+
+    protected ScriptProfile() {
+        this.calls = new LongAdder[SLOTS];
+        this.nanos = new LongAdder[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            calls[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+        }
+
+        this.history = new long[MAX_WINDOW + 1][SLOTS * 2];
+        this.head = 0;
+        this.size = 1;
+    }
+
+    /**
+     * Record a call into the script.
+     * @param type The entry point through which the script was called
+     * @param mainThread True if the call was made on the main thread, false if otherwise
+     * @param elapsed The time, in nanoseconds, spent in the call
+     */
+    public void record(CallType type, boolean mainThread, long elapsed) {
+        int slot = getSlot(type, mainThread);
+        calls[slot].increment();
+        nanos[slot].add(elapsed);
+    }
+
+    /**
+     * Get the number of calls made into the script within a window.
+     * @param type The entry point to get calls for
+     * @param mainThread True to get calls made on the main thread, false to get calls made on async threads
+     * @param window The window, in seconds. If the profile is younger than the window, all calls since the profile was created are counted
+     * @return The number of calls
+     */
+    public synchronized long getCalls(CallType type, boolean mainThread, int window) {
+        int slot = getSlot(type, mainThread);
+        return history[head][slot] - history[getWindowStart(window)][slot];
+    }
+
+    /**
+     * Get the time spent in calls made into the script within a window.
+     * @param type The entry point to get the time spent for
+     * @param mainThread True to get the time spent on the main thread, false to get the time spent on async threads
+     * @param window The window, in seconds. If the profile is younger than the window, all calls since the profile was created are counted
+     * @return The time spent, in nanoseconds
+     */
+    public synchronized long getNanos(CallType type, boolean mainThread, int window) {
+        int slot = SLOTS + getSlot(type, mainThread);
+        return history[head][slot] - history[getWindowStart(window)][slot];
+    }
+
+    /**
+     * Get the total number of calls made into the script within a window, across all entry points and threads.
+     * @param window The window, in seconds
+     * @return The total number of calls
+     */
+    public synchronized long getTotalCalls(int window) {
+        long[] start = history[getWindowStart(window)];
+        long total = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            total += history[head][i] - start[i];
+        }
+        return total;
+    }
+
+    /**
+     * Get the total time spent in calls made into the script within a window, across all entry points.
+     * @param mainThread True to get the time spent on the main thread, false to get the time spent on async threads
+     * @param window The window, in seconds
+     * @return The total time spent, in nanoseconds
+     */
+    public synchronized long getTotalNanos(boolean mainThread, int window) {
+        long[] start = history[getWindowStart(window)];
+        long total = 0;
+        for (CallType type : CallType.values()) {
+            int slot = SLOTS + getSlot(type, mainThread);
+            total += history[head][slot] - start[slot];
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of consecutive main thread calls into the script that exceeded their budget.
+     * @return The number of consecutive overruns
+     * @see Watchdog
+     */
+    public int getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Get the most recent estimate of the memory retained by the script.
+     * @return The most recent estimate, or null if the script's memory has not been estimated yet
+     * @see ProfileManager#estimateMemory(dev.magicmq.pyspigot.manager.script.Script)
+     */
+    public MemoryEstimate getMemoryEstimate() {
+        return memoryEstimate;
+    }
+
+    protected void setMemoryEstimate(MemoryEstimate memoryEstimate) {
+        this.memoryEstimate = memoryEstimate;
+    }
+
+    protected int incrementOverruns() {
+        return ++overruns;
+    }
+
+    protected void resetOverruns() {
+        overruns = 0;
+    }
+
+    protected synchronized void snapshot() {
+        head = (head + 1) % history.length;
+        long[] snapshot = history[head];
+        for (int i = 0; i < SLOTS; i++) {
+            snapshot[i] = calls[i].sum();
+            snapshot[SLOTS + i] = nanos[i].sum();
+        }
+
+        if (size < history.length)
+            size++;
+    }
+
+    private int getWindowStart(int window) {
+        int offset = Math.min(Math.max(window, 0), size - 1);
+        return Math.floorMod(head - offset, history.length);
+    }
+
+    private static int getSlot(CallType type, boolean mainThread) {
+        return type.ordinal() * 2 + (mainThread ? 0 : 1);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.profile;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.config.PluginConfig;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.ScriptUtils;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Watches calls into scripts on the main thread and reports calls that take longer than the budget configured for their {@link CallType}.
+ * <p>
+ * While the watchdog is enabled, a background thread checks the call that is currently running on the main thread every few milliseconds. The thread is only running while the watchdog is enabled in the config. Once the call has run for longer than its budget, the main thread's stack is captured and logged to the script's logger, so the offending Python code can be found even if the call never returns. Only the outermost call is watched if scripts call into each other.
+ * <p>
+ * If configured, a script is unloaded once a number of consecutive main thread calls into it exceed their budget.
+ */
+public class Watchdog {
+
+    private static final long CHECK_INTERVAL = 5L;
+
+    private final Thread mainThread;
+    private final long[] budgets;
+
+    private volatile boolean enabled;
+    private volatile int unloadAfterOverruns;
+    private volatile Call current;
+    private volatile Thread watchdogThread;
+    private int depth;
+
+    /**
+     * Must be called from the main thread.
+     */
+    protected Watchdog() {
+        this.mainThread = Thread.currentThread();
+        this.budgets = new long[CallType.values().length];
+        reload();
+    }
+
+    /**
+     * Reload the budgets and the unload policy from the config. The watchdog thread is started or stopped if the watchdog was enabled or disabled.
+     */
+    public synchronized void reload() {
+        enabled = PluginConfig.isWatchdogEnabled();
+        unloadAfterOverruns = PluginConfig.getWatchdogUnloadAfterOverruns();
+
+        budgets[CallType.EVENT_LISTENER.ordinal()] = toNanos(PluginConfig.getWatchdogBudget("event-listener"));
+        budgets[CallType.TASK.ordinal()] = toNanos(PluginConfig.getWatchdogBudget("task"));
+        budgets[CallType.COMMAND.ordinal()] = toNanos(PluginConfig.getWatchdogBudget("command"));
+        budgets[CallType.TAB_COMPLETE.ordinal()] = toNanos(PluginConfig.getWatchdogBudget("command"));
+        budgets[CallType.PLACEHOLDER.ordinal()] = toNanos(PluginConfig.getWatchdogBudget("placeholder"));
+        budgets[CallType.PACKET_LISTENER.ordinal()] = toNanos(PluginConfig.getWatchdogBudget("packet-listener"));
+        budgets[CallType.REDIS_LISTENER.ordinal()] = 0L;
+
+        if (enabled && watchdogThread == null) {
+            watchdogThread = new Thread(this::watch, "PySpigot Watchdog");
+            watchdogThread.setDaemon(true);
+            watchdogThread.start();
+        } else if (!enabled)
+            stopThread();
+    }
+
+    /**
+     * Stop the watchdog.
+     */
+    public synchronized void shutdown() {
+        stopThread();
+    }
+
+    private void stopThread() {
+        if (watchdogThread != null) {
+            watchdogThread.interrupt();
+            watchdogThread = null;
+        }
+    }
+
+    /**
+     * Called internally on the main thread just before a script's function is called.
+     * @param script The script being called
+     * @param type The entry point through which the script is being called
+     * @param start The time at which the call started, from {@link System#nanoTime()}
+     */
+    protected void enter(Script script, CallType type, long start) {
+        if (depth++ == 0 && enabled)
+            current = new Call(script, type, start);
+    }
+
+    /**
+     * Called internally on the main thread once a call to a script's function returns.
+     * @param script The script that was called
+     * @param type The entry point through which the script was called
+     * @param elapsed The time, in nanoseconds, spent in the call
+     */
+    protected void exit(Script script, CallType type, long elapsed) {
+        if (--depth > 0)
+            return;
+
+        Call call = current;
+        current = null;
+        if (call == null)
+            return;
+
+        ScriptProfile profile = script.getProfile();
+        long budget = budgets[type.ordinal()];
+        if (budget <= 0 || elapsed <= budget) {
+            if (profile != null)
+                profile.resetOverruns();
+            return;
+        }
+
+        //The watchdog thread did not catch this call while it was running, so there is no stack to report
+        if (!call.reported)
+            script.getLogger().log(Level.WARNING, "Call to script (" + type.getDisplayName() + ") took " + toMillis(elapsed) + "ms, exceeding its budget of " + toMillis(budget) + "ms");
+
+        int overruns = profile != null ? profile.incrementOverruns() : 0;
+        int limit = unloadAfterOverruns;
+        if (limit > 0 && overruns >= limit) {
+            profile.resetOverruns();
+            //Unload on the next tick, since the script may still be on the call stack
+            Bukkit.getScheduler().runTask(PySpigot.get(), () -> {
+                ScriptManager scriptManager = ScriptManager.get();
+                if (scriptManager.getScript(script.getName()) == script) {
+                    PySpigot.get().getLogger().log(Level.WARNING, "Unloading script '" + script.getName() + "' after " + overruns + " consecutive calls exceeded their budget");
+                    scriptManager.unloadScript(script, true);
+                }
+            });
+        }
+    }
+
+    private void watch() {
+        Thread thread = Thread.currentThread();
+        while (!thread.isInterrupted()) {
+            Call call = current;
+            if (call != null && !call.reported) {
+                long budget = budgets[call.type.ordinal()];
+                long elapsed = System.nanoTime() - call.start;
+                if (budget > 0 && elapsed > budget) {
+                    call.reported = true;
+                    report(call, elapsed, budget);
+                }
+            }
+
+            try {
+                Thread.sleep(CHECK_INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void report(Call call, long elapsed, long budget) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Call to script (").append(call.type.getDisplayName()).append(") has been running for ").append(toMillis(elapsed)).append("ms, exceeding its budget of ").append(toMillis(budget)).append("ms. Python stack:");
+
+        StackTraceElement[] trace = mainThread.getStackTrace();
+        boolean found = false;
+        //The stack is only meaningful if the call was still running when it was captured
+        if (current == call) {
+            for (StackTraceElement element : trace) {
+                String frame = ScriptUtils.getPythonFrameName(element);
+                if (frame != null) {
+                    builder.append("\n    at ").append(frame);
+                    found = true;
+                }
+            }
+        }
+        if (!found)
+            builder.append("\n    (the call returned before the stack could be captured)");
+
+        call.script.getLogger().log(Level.WARNING, builder.toString());
+    }
+
+    private static long toNanos(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, millis));
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class Call {
+
+        private final Script script;
+        private final CallType type;
+        private final long start;
+
+        private volatile boolean reported;
+
+        private Call(Script script, CallType type, long start) {
+            this.script = script;
+            this.type = type;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains all classes related to script profiling.
+ */
+package dev.magicmq.pyspigot.manager.profile;
\ No newline at end of file
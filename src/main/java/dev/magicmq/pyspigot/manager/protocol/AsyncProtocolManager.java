@@ -182,6 +182,20 @@ public class AsyncProtocolManager {
         return registeredAsyncListeners.get(script);
     }
 
+    /**
+     * Get all asynchronous packet listeners belonging to a script that are registered with ProtocolLib, regardless of whether they are tracked by this manager. Used to find packet listeners that were not unregistered when a script was unloaded.
+     * @param script The script to get asynchronous packet listeners for
+     * @return A List of {@link ScriptPacketListener} registered with ProtocolLib for the script. Will return an empty list if there are none
+     */
+    public List<ScriptPacketListener> getRegisteredAsyncPacketListeners(Script script) {
+        List<ScriptPacketListener> toReturn = new ArrayList<>();
+        for (AsyncListenerHandler handler : asynchronousManager.getAsyncHandlers()) {
+            if (handler.getAsyncListener() instanceof ScriptPacketListener listener && listener.getScript() == script)
+                toReturn.add(listener);
+        }
+        return toReturn;
+    }
+
     /**
      * Get the asynchronous packet listener for a particular packet type associated with a script
      * @param script The script
@@ -20,6 +20,7 @@ import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.events.ListenerPriority;
 import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketListener;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.util.ScriptUtils;
 import org.bukkit.Location;
@@ -149,6 +150,20 @@ public class ProtocolManager {
         return registeredListeners.get(script);
     }
 
+    /**
+     * Get all normal packet listeners belonging to a script that are registered with ProtocolLib, regardless of whether they are tracked by this manager. Used to find packet listeners that were not unregistered when a script was unloaded.
+     * @param script The script to get normal packet listeners for
+     * @return A List of {@link ScriptPacketListener} registered with ProtocolLib for the script. Will return an empty list if there are none
+     */
+    public List<ScriptPacketListener> getRegisteredPacketListeners(Script script) {
+        List<ScriptPacketListener> toReturn = new ArrayList<>();
+        for (PacketListener packetListener : protocolManager.getPacketListeners()) {
+            if (packetListener instanceof ScriptPacketListener listener && listener.getScript() == script)
+                toReturn.add(listener);
+        }
+        return toReturn;
+    }
+
     /**
      * Get the normal packet listener for a particular packet type associated with a script.
      * <p>
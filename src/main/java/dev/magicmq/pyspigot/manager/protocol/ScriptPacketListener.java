@@ -21,6 +21,8 @@ import com.comphenix.protocol.events.ListenerPriority;
 import com.comphenix.protocol.events.PacketAdapter;
 import com.comphenix.protocol.events.PacketEvent;
 import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.python.core.Py;
@@ -92,11 +94,14 @@ public abstract class ScriptPacketListener extends PacketAdapter {
      * @param event The event that occurred, will be passed to the script's function
      */
     public void callToScript(PacketEvent event) {
+        long start = ProfileManager.get().begin(script, CallType.PACKET_LISTENER);
         try {
             PyObject parameter = Py.java2py(event);
             function.__call__(parameter);
         } catch (PyException exception) {
             ScriptManager.get().handleScriptException(script, exception, "Error when calling packet listener");
+        } finally {
+            ProfileManager.get().end(script, CallType.PACKET_LISTENER, start);
         }
     }
 
@@ -16,6 +16,10 @@
 
 package dev.magicmq.pyspigot.manager.redis;
 
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.ScriptUtils;
 import io.lettuce.core.pubsub.RedisPubSubListener;
 import org.python.core.Py;
 import org.python.core.PyFunction;
@@ -27,15 +31,28 @@ import org.python.core.PyObject;
  */
 public class ScriptPubSubListener implements RedisPubSubListener<String, String> {
 
+    private final Script script;
     private final PyFunction function;
     private final String channel;
 
     /**
-     *
+     * Create a listener that belongs to the script calling this constructor.
      * @param function The function that should be called when a message is received on the given channel
      * @param channel The channel to listen on
+     * @see ScriptUtils#getScriptFromCallStack()
      */
     public ScriptPubSubListener(PyFunction function, String channel) {
+        this(ScriptUtils.getScriptFromCallStack(), function, channel);
+    }
+
+    /**
+     *
+     * @param script The script to which this listener belongs, or null if the listener does not belong to a script
+     * @param function The function that should be called when a message is received on the given channel
+     * @param channel The channel to listen on
+     */
+    public ScriptPubSubListener(Script script, PyFunction function, String channel) {
+        this.script = script;
         this.function = function;
         this.channel = channel;
     }
@@ -49,7 +66,18 @@ public class ScriptPubSubListener implements RedisPubSubListener<String, String>
     public void message(String channel, String message) {
         if (channel.equals(this.channel)) {
             PyObject[] parameters = Py.javas2pys(channel, message);
-            function.__call__(parameters[0], parameters[1]);
+            //Listeners that do not belong to a script have no profile to record the call in
+            if (script == null) {
+                function.__call__(parameters[0], parameters[1]);
+                return;
+            }
+
+            long start = ProfileManager.get().begin(script, CallType.REDIS_LISTENER);
+            try {
+                function.__call__(parameters[0], parameters[1]);
+            } finally {
+                ProfileManager.get().end(script, CallType.REDIS_LISTENER, start);
+            }
         }
     }
 
@@ -83,6 +111,14 @@ public class ScriptPubSubListener implements RedisPubSubListener<String, String>
     @Override
     public void punsubscribed(String s, long l) {}
 
+    /**
+     * Get the script associated with this listener.
+     * @return The script associated with this listener
+     */
+    public Script getScript() {
+        return script;
+    }
+
     /**
      * Implemented from {@link RedisPubSubListener}, but unused.
      */
@@ -90,7 +90,7 @@ public class RedisPubSubClient extends ScriptRedisClient {
      * @return A {@link ScriptPubSubListener} representing the listener that was registered
      */
     public ScriptPubSubListener registerSyncListener(PyFunction function, String channel) {
-        ScriptPubSubListener listener = new ScriptPubSubListener(function, channel);
+        ScriptPubSubListener listener = new ScriptPubSubListener(getScript(), function, channel);
         connection.addListener(listener);
         connection.sync().subscribe(channel);
 
@@ -108,7 +108,7 @@ public class RedisPubSubClient extends ScriptRedisClient {
      * @return A {@link ScriptPubSubListener} representing the listener that was registered
      */
     public ScriptPubSubListener registerAsyncListener(PyFunction function, String channel) {
-        ScriptPubSubListener listener = new ScriptPubSubListener(function, channel);
+        ScriptPubSubListener listener = new ScriptPubSubListener(getScript(), function, channel);
         connection.addListener(listener);
         connection.async().subscribe(channel);
 
@@ -0,0 +1,227 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.config.PluginConfig;
+import dev.magicmq.pyspigot.manager.command.ScriptCommand;
+import dev.magicmq.pyspigot.manager.listener.ScriptEventDispatcher;
+import dev.magicmq.pyspigot.manager.placeholder.PlaceholderManager;
+import dev.magicmq.pyspigot.manager.placeholder.ScriptPlaceholder;
+import dev.magicmq.pyspigot.manager.protocol.ProtocolManager;
+import dev.magicmq.pyspigot.manager.protocol.ScriptPacketListener;
+import dev.magicmq.pyspigot.util.ScriptUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.scheduler.BukkitTask;
+import org.python.core.PyFunction;
+import org.python.core.PyMethod;
+import org.python.core.PyObject;
+import org.python.util.PythonInterpreter;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Detects unloaded scripts whose {@link Script} object or {@link PythonInterpreter} is never garbage collected.
+ * <p>
+ * Every unloaded script is tracked through weak references. The detector periodically checks tracked scripts on the main thread. If a script is still reachable after the grace period has passed and at least one garbage collection has run since it was unloaded, it is reported as a likely leak, along with any known places that still reference it (such as event handler lists, the command map, ProtocolLib, PlaceholderAPI, global variables, or threads still running its code).
+ */
+public class LeakDetector {
+
+    private static final long CHECK_INTERVAL = 600L;
+
+    private final List<TrackedScript> tracked;
+
+    private BukkitTask checkTask;
+
+    protected LeakDetector() {
+        this.tracked = new ArrayList<>();
+    }
+
+    /**
+     * Begin checking tracked scripts periodically.
+     */
+    public void start() {
+        checkTask = Bukkit.getScheduler().runTaskTimer(PySpigot.get(), this::check, CHECK_INTERVAL, CHECK_INTERVAL);
+    }
+
+    /**
+     * Stop checking tracked scripts, and stop tracking all scripts.
+     */
+    public void shutdown() {
+        if (checkTask != null)
+            checkTask.cancel();
+        tracked.clear();
+    }
+
+    /**
+     * Begin tracking a script that was just unloaded.
+     * @param script The script that was unloaded
+     * @param trackInterpreter True if the script's interpreter should also be tracked, false if the interpreter is being reused by a new instance of the script
+     */
+    public void track(Script script, boolean trackInterpreter) {
+        tracked.add(new TrackedScript(script, trackInterpreter, getCollectionCount()));
+    }
+
+    /**
+     * Get the number of unloaded scripts that are still reachable.
+     * @return The number of tracked scripts that have not been garbage collected yet
+     */
+    public int getTrackedCount() {
+        return tracked.size();
+    }
+
+    private void check() {
+        long now = System.currentTimeMillis();
+        long gracePeriod = PluginConfig.getLeakDetectorGracePeriod() * 1000L;
+        long collectionCount = getCollectionCount();
+
+        Iterator<TrackedScript> iterator = tracked.iterator();
+        while (iterator.hasNext()) {
+            TrackedScript trackedScript = iterator.next();
+            Script script = trackedScript.script.get();
+            PythonInterpreter interpreter = trackedScript.interpreter.get();
+            if (script == null && interpreter == null) {
+                if (trackedScript.reported)
+                    PySpigot.get().getLogger().log(Level.INFO, "Previously reported script '" + trackedScript.name + "' was garbage collected");
+                iterator.remove();
+                continue;
+            }
+
+            if (trackedScript.reported || now - trackedScript.unloadTime < gracePeriod || collectionCount <= trackedScript.collectionCount)
+                continue;
+
+            trackedScript.reported = true;
+
+            List<String> retainers = findRetainers(trackedScript.name, script, interpreter);
+            StringBuilder builder = new StringBuilder();
+            builder.append("Script '").append(trackedScript.name).append("' was unloaded ").append((now - trackedScript.unloadTime) / 1000L).append("s ago, but its ");
+            if (script != null && interpreter != null)
+                builder.append("script object and interpreter are");
+            else if (script != null)
+                builder.append("script object is");
+            else
+                builder.append("interpreter is");
+            builder.append(" still reachable. This is likely a memory leak.");
+
+            if (retainers.isEmpty())
+                builder.append(" No known reference was found, it may be held by a thread that ran the script or by another plugin. Take a heap dump to investigate.");
+            else {
+                builder.append(" Likely retained by:");
+                for (String retainer : retainers) {
+                    builder.append("\n    - ").append(retainer);
+                }
+            }
+
+            PySpigot.get().getLogger().log(Level.WARNING, builder.toString());
+        }
+    }
+
+    private List<String> findRetainers(String name, Script script, PythonInterpreter interpreter) {
+        List<String> retainers = new ArrayList<>();
+        PyObject locals = interpreter != null ? interpreter.getLocals() : null;
+
+        if (script != null) {
+            for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+                for (RegisteredListener registeredListener : handlerList.getRegisteredListeners()) {
+                    if (registeredListener.getListener() instanceof ScriptEventDispatcher dispatcher && dispatcher.getScript() == script)
+                        retainers.add("An event listener still registered with Bukkit (" + dispatcher + ")");
+                }
+            }
+
+            try {
+                Field commandMapField = Bukkit.getServer().getClass().getDeclaredField("commandMap");
+                commandMapField.setAccessible(true);
+                SimpleCommandMap commandMap = (SimpleCommandMap) commandMapField.get(Bukkit.getServer());
+                for (Command command : commandMap.getCommands()) {
+                    if (command instanceof PluginCommand pluginCommand && pluginCommand.getExecutor() instanceof ScriptCommand scriptCommand && scriptCommand.getScript() == script)
+                        retainers.add("A command still registered in the server's command map (/" + command.getName() + ")");
+                }
+            } catch (NoSuchFieldException | IllegalAccessException ignored) {
+                //Reflection checks are done on plugin enable
+            }
+
+            if (PySpigot.get().isProtocolLibAvailable()) {
+                for (ScriptPacketListener listener : ProtocolManager.get().getRegisteredPacketListeners(script)) {
+                    retainers.add("A packet listener still registered with ProtocolLib (" + listener + ")");
+                }
+                for (ScriptPacketListener listener : ProtocolManager.get().async().getRegisteredAsyncPacketListeners(script)) {
+                    retainers.add("An async packet listener still registered with ProtocolLib (" + listener + ")");
+                }
+            }
+
+            if (PySpigot.get().isPlaceholderApiAvailable()) {
+                for (ScriptPlaceholder placeholder : PlaceholderManager.get().getRegisteredPlaceholders(script)) {
+                    retainers.add("A placeholder expansion still registered with PlaceholderAPI (" + placeholder.getIdentifier() + ")");
+                }
+            }
+        }
+
+        for (Map.Entry<String, Object> entry : GlobalVariables.get().getHashMap().entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof PyMethod method)
+                value = method.__func__;
+            if ((script != null && value == script) || (interpreter != null && value == interpreter) || (locals != null && value instanceof PyFunction function && function.__globals__ == locals))
+                retainers.add("The global variable '" + entry.getKey() + "'");
+        }
+
+        for (Thread thread : ScriptUtils.getScriptThreads(name)) {
+            retainers.add("The thread '" + thread.getName() + "', which is still running code from a script with this name");
+        }
+
+        return retainers;
+    }
+
+    private static long getCollectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static class TrackedScript {
+
+        private final String name;
+        private final WeakReference<Script> script;
+        private final WeakReference<PythonInterpreter> interpreter;
+        private final long unloadTime;
+        private final long collectionCount;
+
+        private boolean reported;
+
+        private TrackedScript(Script script, boolean trackInterpreter, long collectionCount) {
+            this.name = script.getName();
+            this.script = new WeakReference<>(script);
+            this.interpreter = new WeakReference<>(trackInterpreter ? script.getInterpreter() : null);
+            this.unloadTime = System.currentTimeMillis();
+            this.collectionCount = collectionCount;
+        }
+    }
+}
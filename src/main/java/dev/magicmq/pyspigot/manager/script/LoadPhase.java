@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+/**
+ * An enum representing a phase of loading a script, used to break down how long a script took to load.
+ * @see LoadTimings
+ */
+public enum LoadPhase {
+
+    /**
+     * Parsing the script's options from script_options.yml.
+     */
+    OPTIONS("Options"),
+
+    /**
+     * Preparing the script's interpreter and logger.
+     */
+    PREPARE("Prepare"),
+
+    /**
+     * Reading the script file.
+     */
+    READ("File read"),
+
+    /**
+     * Compiling the script, or loading its compiled code from the script cache.
+     */
+    COMPILE("Compile"),
+
+    /**
+     * Executing the script's module-level code.
+     */
+    EXECUTE("Execute"),
+
+    /**
+     * Calling the script's start function.
+     */
+    START("Start function"),
+
+    /**
+     * Calling the {@link dev.magicmq.pyspigot.event.ScriptLoadEvent}.
+     */
+    LOAD_EVENT("Load event");
+
+    private final String displayName;
+
+    LoadPhase(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Get a human-readable name for this load phase.
+     * @return The display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A report of the time each script spent in each {@link LoadPhase} when all scripts were last loaded with {@link ScriptManager#loadScripts()}.
+ * <p>
+ * The report only holds the names and timings of scripts, so it does not keep unloaded scripts in memory.
+ */
+public class LoadReport {
+
+    private final long timestamp;
+    private final long wallNanos;
+    private final List<Map.Entry<String, LoadTimings>> entries;
+
+    /**
+     *
+     * @param wallNanos The time it took to load all scripts, in nanoseconds
+     * @param entries The timings of each script, keyed by script name
+     */
+    protected LoadReport(long wallNanos, List<Map.Entry<String, LoadTimings>> entries) {
+        this.timestamp = System.currentTimeMillis();
+        this.wallNanos = wallNanos;
+        entries.sort(Comparator.comparingLong((Map.Entry<String, LoadTimings> entry) -> entry.getValue().getTotalNanos()).reversed());
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Get the time at which this report was created.
+     * @return The time at which this report was created, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the time it took to load all scripts. Because scripts are compiled in parallel, this may be less than the sum of each script's timings.
+     * @return The time it took to load all scripts, in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Get the timings of each script, sorted from slowest to fastest.
+     * @return An immutable list of entries containing each script's name and timings
+     */
+    public List<Map.Entry<String, LoadTimings>> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the total time spent in a load phase across all scripts.
+     * @param phase The load phase
+     * @return The total time spent, in nanoseconds
+     */
+    public long getTotalNanos(LoadPhase phase) {
+        long total = 0;
+        for (Map.Entry<String, LoadTimings> entry : entries) {
+            total += entry.getValue().getNanos(phase);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The time a script spent in each {@link LoadPhase} the last time it was loaded.
+ * <p>
+ * Phases may be recorded from different threads (for example, when scripts are compiled in parallel), but each phase is only recorded before the script is run on the main thread.
+ */
+public class LoadTimings {
+
+    private final long[] nanos;
+
+    protected LoadTimings() {
+        this.nanos = new long[LoadPhase.values().length];
+    }
+
+    /**
+     * Record the time spent in a load phase.
+     * @param phase The load phase
+     * @param nanos The time spent, in nanoseconds
+     */
+    public void record(LoadPhase phase, long nanos) {
+        this.nanos[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Get the time spent in a load phase.
+     * @param phase The load phase
+     * @return The time spent, in nanoseconds
+     */
+    public long getNanos(LoadPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Get the time spent in all load phases.
+     * @return The total time spent loading, in nanoseconds
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (long phaseNanos : nanos) {
+            total += phaseNanos;
+        }
+        return total;
+    }
+
+    /**
+     * Get the load phase the most time was spent in.
+     * @return The slowest load phase
+     */
+    public LoadPhase getSlowestPhase() {
+        LoadPhase slowest = LoadPhase.OPTIONS;
+        for (LoadPhase phase : LoadPhase.values()) {
+            if (getNanos(phase) > getNanos(slowest))
+                slowest = phase;
+        }
+        return slowest;
+    }
+
+    /**
+     * Prints a representation of these timings in string format, including the time spent in every load phase.
+     * @return A string representation of the LoadTimings
+     */
+    @Override
+    public String toString() {
+        List<String> phases = new ArrayList<>();
+        for (LoadPhase phase : LoadPhase.values()) {
+            phases.add(phase.getDisplayName() + ": " + formatNanos(getNanos(phase)));
+        }
+        return formatNanos(getTotalNanos()) + " (" + String.join(", ", phases) + ")";
+    }
+
+    /**
+     * Format a duration in nanoseconds as milliseconds.
+     * @param nanos The duration, in nanoseconds
+     * @return The formatted duration
+     */
+    public static String formatNanos(long nanos) {
+        return String.format("%.2fms", nanos / 1000000D);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import org.python.Version;
+import org.python.core.BytecodeLoader;
+import org.python.core.PyCode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Scripts that were compiled ahead of time and packaged into a jar with the {@link ScriptPackager}.
+ * <p>
+ * The jar is read into memory once, so scripts are loaded without reading or compiling any script files. Script paths point to where each script file was located within the scripts folder when the jar was packaged, even though the file itself may not exist.
+ */
+public class PrecompiledScripts {
+
+    private final Path jar;
+    private final Map<String, CompiledScript> scripts;
+    private final Map<String, Path> pathsByName;
+    private final SortedSet<Path> paths;
+    private final SortedSet<String> names;
+
+    private PrecompiledScripts(Path jar, Map<String, CompiledScript> scripts, Path scriptsFolder) {
+        this.jar = jar;
+        this.scripts = scripts;
+
+        Map<String, Path> pathsByName = new HashMap<>();
+        SortedSet<Path> paths = new TreeSet<>();
+        for (CompiledScript script : scripts.values()) {
+            Path path = scriptsFolder.resolve(script.entryName.substring(0, script.entryName.length() - ScriptPackager.ENTRY_EXTENSION.length()));
+            paths.add(path);
+            pathsByName.put(path.getFileName().toString().toLowerCase(Locale.ROOT), path);
+        }
+        this.pathsByName = pathsByName;
+        this.paths = Collections.unmodifiableSortedSet(paths);
+        this.names = Collections.unmodifiableSortedSet(new TreeSet<>(scripts.keySet()));
+    }
+
+    /**
+     * Get the path of the jar the scripts were read from.
+     * @return The path of the jar
+     */
+    public Path getJar() {
+        return jar;
+    }
+
+    /**
+     * Get the path of a precompiled script by its name. The name is matched case-insensitively.
+     * @param name The name of the script file
+     * @return The absolute path the script file was located at when it was packaged, or null if the jar does not contain a matching script
+     */
+    public Path getPath(String name) {
+        return pathsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get the paths of all precompiled scripts.
+     * @return An immutable {@link java.util.SortedSet} of Paths representing the absolute paths the script files were located at when they were packaged
+     */
+    public SortedSet<Path> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Get the file names of all precompiled scripts.
+     * @return An immutable {@link java.util.SortedSet} of Strings representing the names of all precompiled scripts
+     */
+    public SortedSet<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Get the hash of the source a script was compiled from.
+     * @param name The name of the script file
+     * @return The source hash, or null if the jar does not contain the script
+     */
+    public String getSourceHash(String name) {
+        CompiledScript script = scripts.get(name);
+        return script != null ? script.sourceHash : null;
+    }
+
+    /**
+     * Get the compiled code for a script.
+     * @param script The script to get compiled code for
+     * @return The compiled code, ready to be executed in the script's interpreter, or null if the jar does not contain the script
+     */
+    public PyCode getCode(Script script) {
+        CompiledScript compiled = scripts.get(script.getName());
+        if (compiled == null)
+            return null;
+
+        script.setSourceHash(compiled.sourceHash);
+        return BytecodeLoader.makeCode(compiled.className, compiled.bytecode, script.getName());
+    }
+
+    /**
+     * Read precompiled scripts from a jar written by the {@link ScriptPackager}.
+     * @param jar The path of the jar
+     * @param scriptsFolder The scripts folder, used to resolve the paths of scripts
+     * @return The precompiled scripts contained in the jar
+     * @throws IOException If the jar could not be read, is not a precompiled scripts jar, or was compiled with a different version of Jython
+     */
+    public static PrecompiledScripts read(Path jar, Path scriptsFolder) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Manifest manifest = jarFile.getManifest();
+            if (manifest == null || manifest.getMainAttributes().getValue(ScriptPackager.JYTHON_VERSION) == null)
+                throw new IOException("'" + jar.getFileName() + "' is not a precompiled scripts jar");
+
+            String version = manifest.getMainAttributes().getValue(ScriptPackager.JYTHON_VERSION);
+            if (!version.equals(Version.PY_VERSION))
+                throw new IOException("'" + jar.getFileName() + "' was compiled with Jython " + version + ", but the server is running Jython " + Version.PY_VERSION);
+
+            Map<String, CompiledScript> scripts = new HashMap<>();
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                Attributes attributes = manifest.getAttributes(entry.getName());
+                if (entry.isDirectory() || attributes == null || !entry.getName().endsWith(ScriptPackager.ENTRY_EXTENSION))
+                    continue;
+
+                String entryName = entry.getName();
+                String fileName = entryName.substring(entryName.lastIndexOf('/') + 1, entryName.length() - ScriptPackager.ENTRY_EXTENSION.length());
+                byte[] bytecode = jarFile.getInputStream(entry).readAllBytes();
+                scripts.put(fileName, new CompiledScript(entryName, attributes.getValue(ScriptPackager.CLASS_NAME), attributes.getValue(ScriptPackager.SOURCE_HASH), bytecode));
+            }
+
+            return new PrecompiledScripts(jar, scripts, scriptsFolder);
+        }
+    }
+
+    private static class CompiledScript {
+
+        private final String entryName;
+        private final String className;
+        private final String sourceHash;
+        private final byte[] bytecode;
+
+        private CompiledScript(String entryName, String className, String sourceHash, byte[] bytecode) {
+            this.entryName = entryName;
+            this.className = className;
+            this.sourceHash = sourceHash;
+            this.bytecode = bytecode;
+        }
+    }
+}
@@ -36,6 +36,11 @@ public enum RunResult {
      */
     FAIL_PLUGIN_DEPENDENCY,
 
+    /**
+     * Returned if the script was not loaded because one or more of the scripts it depends on are not loaded.
+     */
+    FAIL_SCRIPT_DEPENDENCY,
+
     /**
      * Returned if the script was loaded but failed during runtime due to an error.
      */
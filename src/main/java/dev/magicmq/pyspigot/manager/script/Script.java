@@ -17,16 +17,28 @@
 package dev.magicmq.pyspigot.manager.script;
 
 import dev.magicmq.pyspigot.PySpigot;
-import dev.magicmq.pyspigot.util.ScriptUtils;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
+import dev.magicmq.pyspigot.manager.profile.ScriptProfile;
 import dev.magicmq.pyspigot.util.logging.PrintStreamWrapper;
 import dev.magicmq.pyspigot.util.logging.ScriptLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.permissions.Permission;
+import org.python.core.Py;
+import org.python.core.PyJavaPackage;
+import org.python.core.PyJavaType;
+import org.python.core.PyObject;
+import org.python.core.PyString;
+import org.python.core.PyStringMap;
+import org.python.core.PySystemState;
 import org.python.util.PythonInterpreter;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -37,10 +49,15 @@ public class Script implements Comparable<Script> {
     private final Path path;
     private final String name;
     private final ScriptOptions options;
+    private final LoadTimings loadTimings;
 
     private PythonInterpreter interpreter;
+    private Set<String> baseModules;
+    private List<PyObject> basePath;
     private ScriptLogger logger;
+    private ScriptProfile profile;
     private long loadTime;
+    private volatile String sourceHash;
 
     /**
      * @param path The path that corresponds to the file where the script lives
@@ -51,13 +68,40 @@ public class Script implements Comparable<Script> {
         this.path = path;
         this.name = name;
         this.options = options;
+        this.loadTimings = new LoadTimings();
     }
 
     /**
      * Prepares this script for execution by initializing its interpreter and logger. Called just prior to executing the script's code.
+     * <p>
+     * The interpreter's system state is taken from the {@link SystemStatePool}, so it is usually already built. Modules configured to be shared are installed into it from the {@link SharedModuleCache}.
      */
     public void prepare() {
-        this.interpreter = new PythonInterpreter(null, ScriptUtils.initPySystemState());
+        prepare(null);
+    }
+
+    /**
+     * Prepares this script for execution, reusing an interpreter that was reset with {@link #resetForReuse()} by the previous instance of this script. The interpreter's system state, including its class loader and imported Java packages and classes, is kept warm.
+     * @param reused The interpreter to reuse, or null to create a new interpreter
+     */
+    protected void prepare(PythonInterpreter reused) {
+        PySystemState sys;
+        if (reused != null) {
+            this.interpreter = reused;
+            sys = reused.getSystemState();
+            ScriptManager.get().getSharedModuleCache().install(sys);
+        } else {
+            sys = ScriptManager.get().getSystemStatePool().take();
+            ScriptManager.get().getSharedModuleCache().install(sys);
+            this.interpreter = new PythonInterpreter(null, sys);
+        }
+
+        this.baseModules = new HashSet<>();
+        for (PyObject key : sys.modules.asIterable()) {
+            baseModules.add(key.toString());
+        }
+        this.basePath = List.of(sys.path.getArray());
+
         this.interpreter.setOut(new PrintStreamWrapper(System.out, this, Level.INFO, "[STDOUT]"));
         this.interpreter.setErr(new PrintStreamWrapper(System.err, this, Level.SEVERE, "[STDERR]"));
 
@@ -72,6 +116,8 @@ public class Script implements Comparable<Script> {
         }
         interpreter.set("logger", logger);
 
+        this.profile = ProfileManager.get().newProfile();
+
         loadTime = System.currentTimeMillis();
     }
 
@@ -81,10 +127,49 @@ public class Script implements Comparable<Script> {
     public void close() {
         interpreter.close();
 
+        ProfileManager.get().removeProfile(profile);
+
         if (options.isFileLoggingEnabled())
             logger.closeFileHandler();
     }
 
+    /**
+     * Closes this script's file logger and resets its interpreter so that it can be reused by the next instance of this script, instead of closing it. Called when a script is reloaded and interpreter reuse is enabled.
+     * <p>
+     * All of the script's globals are cleared, Python modules imported by the script are removed from sys.modules so they are imported again, and sys.path is restored to what it was when the script was prepared. Java packages and classes imported by the script are kept.
+     * @return The reset interpreter, which should be passed to {@link #prepare(PythonInterpreter)}
+     */
+    protected PythonInterpreter resetForReuse() {
+        ProfileManager.get().removeProfile(profile);
+
+        if (options.isFileLoggingEnabled())
+            logger.closeFileHandler();
+
+        PyStringMap locals = (PyStringMap) interpreter.getLocals();
+        locals.clear();
+        locals.__setitem__("__name__", new PyString("__main__"));
+        locals.__setitem__("__doc__", Py.None);
+
+        PySystemState sys = interpreter.getSystemState();
+        List<PyObject> toRemove = new ArrayList<>();
+        for (PyObject key : sys.modules.asIterable()) {
+            if (baseModules.contains(key.toString()))
+                continue;
+
+            PyObject module = sys.modules.__finditem__(key);
+            if (!(module instanceof PyJavaPackage) && !(module instanceof PyJavaType))
+                toRemove.add(key);
+        }
+        for (PyObject key : toRemove) {
+            sys.modules.__delitem__(key);
+        }
+
+        sys.path.clear();
+        sys.path.addAll(basePath);
+
+        return interpreter;
+    }
+
     public void initPermissions() {
         for (Permission permission : options.getPermissions()) {
             try {
@@ -158,6 +243,36 @@ public class Script implements Comparable<Script> {
         return logger;
     }
 
+    /**
+     * Get the time this script spent in each phase of loading.
+     * @return This script's load timings
+     * @see LoadTimings
+     */
+    public LoadTimings getLoadTimings() {
+        return loadTimings;
+    }
+
+    /**
+     * Get this script's profile, which records the time spent in calls made into this script.
+     * @return This script's profile, or null if the script has not been prepared yet
+     * @see ScriptProfile
+     */
+    public ScriptProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Get a hash of the source this script was compiled from.
+     * @return A hex-encoded SHA-256 hash of the script file's contents at the time the script was loaded, or null if the script has not been compiled yet
+     */
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    protected void setSourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
     /**
      * Get the log file name for this script.
      * @return The log file name for this script. Will contain its extension (.log)
@@ -0,0 +1,191 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.config.PluginConfig;
+import org.python.Version;
+import org.python.antlr.base.mod;
+import org.python.core.BytecodeLoader;
+import org.python.core.CompileMode;
+import org.python.core.CompilerFlags;
+import org.python.core.ParserFacade;
+import org.python.core.Py;
+import org.python.core.PyCode;
+import org.python.core.PyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * An on-disk cache of compiled script bytecode, stored in the cache folder within PySpigot's data folder.
+ * <p>
+ * Entries are keyed by a hash of the script's name, the script's file contents, and the Jython version, so an entry is only reused if it was compiled from the exact same source by the same version of Jython. Each script keeps at most one entry on disk; stale entries are deleted when a script is recompiled.
+ */
+public class ScriptCache {
+
+    private static final String CLASS_NAME_PREFIX = "org.python.pycode._pyx_";
+    private static final String FILE_EXTENSION = ".class";
+
+    private final Path cacheFolder;
+    private final AtomicInteger hits;
+    private final AtomicInteger misses;
+
+    protected ScriptCache() {
+        cacheFolder = PySpigot.get().getDataFolderPath().resolve("cache");
+        hits = new AtomicInteger();
+        misses = new AtomicInteger();
+    }
+
+    /**
+     * Get the compiled code for a script. If the cache is enabled and an entry exists for the script's current source, the cached bytecode will be loaded without compiling. Otherwise, the script will be compiled and (if the cache is enabled) the result will be written to the cache.
+     * @param script The script to get compiled code for
+     * @param source The contents of the script file
+     * @return The compiled code, ready to be executed in the script's interpreter
+     * @throws PyException If the script contains a syntax or indentation error
+     */
+    public PyCode getCode(Script script, byte[] source) {
+        String key = getKey(script.getName(), source);
+        String className = getClassName(key);
+
+        if (!PluginConfig.isScriptCacheEnabled()) {
+            misses.incrementAndGet();
+            return BytecodeLoader.makeCode(className, compile(className, script.getName(), source), script.getName());
+        }
+
+        Path entry = cacheFolder.resolve(script.getName() + "$" + key + FILE_EXTENSION);
+        if (Files.isRegularFile(entry)) {
+            try {
+                byte[] bytecode = Files.readAllBytes(entry);
+                PyCode code = BytecodeLoader.makeCode(className, bytecode, script.getName());
+                hits.incrementAndGet();
+                return code;
+            } catch (IOException | RuntimeException e) {
+                PySpigot.get().getLogger().log(Level.WARNING, "Could not read cached bytecode for script '" + script.getName() + "', it will be recompiled", e);
+            }
+        }
+
+        misses.incrementAndGet();
+        byte[] bytecode = compile(className, script.getName(), source);
+        write(script.getName(), entry, bytecode);
+        return BytecodeLoader.makeCode(className, bytecode, script.getName());
+    }
+
+    /**
+     * Get the number of scripts whose compiled code was loaded from the cache since the last call to {@link #resetStats()}.
+     * @return The number of cache hits
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of scripts that had to be compiled since the last call to {@link #resetStats()}.
+     * @return The number of cache misses
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetStats() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Compile a script's source to Jython bytecode.
+     * @param className The name of the class to compile the script into
+     * @param fileName The file name of the script, used in tracebacks
+     * @param source The contents of the script file
+     * @return The bytecode of the compiled class
+     * @throws PyException If the script contains a syntax or indentation error
+     */
+    protected static byte[] compile(String className, String fileName, byte[] source) {
+        CompilerFlags flags = new CompilerFlags();
+        mod node = ParserFacade.parse(new ByteArrayInputStream(source), CompileMode.exec, fileName, flags);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            org.python.compiler.Module.compile(node, out, className, fileName, true, false, flags);
+        } catch (Exception e) {
+            throw Py.JavaError(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void write(String scriptName, Path entry, byte[] bytecode) {
+        try {
+            Files.createDirectories(cacheFolder);
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheFolder, "*" + FILE_EXTENSION)) {
+                for (Path stale : stream) {
+                    if (stale.getFileName().toString().startsWith(scriptName + "$"))
+                        Files.deleteIfExists(stale);
+                }
+            }
+
+            Path temp = Files.createTempFile(cacheFolder, scriptName, ".tmp");
+            Files.write(temp, bytecode);
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            PySpigot.get().getLogger().log(Level.WARNING, "Could not write cached bytecode for script '" + scriptName + "'", e);
+        }
+    }
+
+    /**
+     * Get the name of the class that compiled code with the given key is loaded as.
+     * @param key The key of the compiled code
+     * @return The class name
+     */
+    protected static String getClassName(String key) {
+        return CLASS_NAME_PREFIX + key.substring(0, 16);
+    }
+
+    /**
+     * Get the key for a script's compiled code, which is a hash of the script's name, its source, and the Jython version.
+     * @param scriptName The name of the script
+     * @param source The contents of the script file
+     * @return A hex-encoded SHA-256 hash
+     */
+    protected static String getKey(String scriptName, byte[] source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Version.PY_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(scriptName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            //This should not happen, every JVM is required to support SHA-256
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import java.util.ArrayDeque;
+
+/**
+ * Tracks which script is currently running on each thread.
+ * <p>
+ * Whenever PySpigot calls into a script (when the script is loaded or stopped, and from event listeners, tasks, commands, and other callbacks), the script is bound to the calling thread for the duration of the call. This allows managers to find the script that called them without walking the call stack. Calls can be nested, for example when a script fires an event that another script listens to, in which case the innermost script is the current one.
+ * <p>
+ * <b>Note:</b> The current script is the script PySpigot called into, not necessarily the script that defines the code that is running. If a script calls a function defined by another script (for example, one obtained through {@link GlobalVariables} or a shared module), the call is attributed to the calling script, so anything the function registers (listeners, tasks, commands, and so on) belongs to the calling script and is cleaned up when that script is unloaded.
+ */
+public final class ScriptContext {
+
+    private static final ThreadLocal<ArrayDeque<Script>> CURRENT = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private ScriptContext() {}
+
+    /**
+     * Get the script currently running on this thread.
+     * @return The script, or null if no script was bound to this thread by PySpigot (for example, on a thread started by a script itself)
+     */
+    public static Script getCurrent() {
+        return CURRENT.get().peek();
+    }
+
+    /**
+     * Bind a script to this thread. Must be followed by a call to {@link #exit()} once the call into the script returns.
+     * @param script The script being called
+     */
+    public static void enter(Script script) {
+        CURRENT.get().push(script);
+    }
+
+    /**
+     * Unbind the script most recently bound to this thread with {@link #enter(Script)}.
+     */
+    public static void exit() {
+        CURRENT.get().poll();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import dev.magicmq.pyspigot.PySpigot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory index of all script files in the scripts folder (including subfolders), used to look up scripts by name without searching the scripts folder on every call.
+ * <p>
+ * The index is built on first use by walking the scripts folder, and is then kept up to date incrementally. If the {@link ScriptWatcher} is running, it reports script files that are created or deleted, which are added to or removed from the index without touching the disk. Otherwise, the modification times of the scripts folder and its subfolders are checked at most once per second, since adding or removing a file changes the modification time of the folder that contains it, and only the folders that changed are listed again.
+ * <p>
+ * The whole scripts folder is walked again only when a subfolder is created or deleted, or when the watcher lost events.
+ */
+public class ScriptIndex {
+
+    private static final long CHECK_INTERVAL = 1000L;
+
+    private final Path scriptsFolder;
+
+    private SortedSet<Path> paths;
+    private SortedSet<String> names;
+    private Map<String, Path> pathsByName;
+    private Map<Path, FileTime> folderTimes;
+
+    private volatile boolean stale;
+    private volatile boolean watched;
+    private long lastCheck;
+
+    /**
+     *
+     * @param scriptsFolder The scripts folder to index
+     */
+    protected ScriptIndex(Path scriptsFolder) {
+        this.scriptsFolder = scriptsFolder;
+        this.stale = true;
+    }
+
+    /**
+     * Get the path of a script file by its name. The name is matched case-insensitively. If there are multiple matching files in different subfolders, the first match will be returned.
+     * @param name The name of the script file
+     * @return The absolute path of the matching file, or null if no matching file was found
+     */
+    public synchronized Path getPath(String name) {
+        refresh();
+        return pathsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get the absolute paths of all script files.
+     * @return An immutable {@link java.util.SortedSet} of Paths representing the absolute paths of all script files
+     */
+    public synchronized SortedSet<Path> getPaths() {
+        refresh();
+        return paths;
+    }
+
+    /**
+     * Get the file names of all script files.
+     * @return An immutable {@link java.util.SortedSet} of Strings representing the names of all script files
+     */
+    public synchronized SortedSet<String> getNames() {
+        refresh();
+        return names;
+    }
+
+    /**
+     * Mark the index as stale, so it is rebuilt on next use.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Update the index for a file or folder that was created in the scripts folder. A script file is added to the index, and a folder causes the index to be rebuilt.
+     * @param path The path of the file or folder that was created
+     */
+    protected synchronized void created(Path path) {
+        if (stale || paths == null)
+            return;
+
+        if (Files.isDirectory(path))
+            stale = true;
+        else if (path.toString().endsWith(".py") && !paths.contains(path)) {
+            SortedSet<Path> updated = new TreeSet<>(paths);
+            updated.add(path);
+            setPaths(updated);
+        }
+    }
+
+    /**
+     * Update the index for a file or folder that was deleted from the scripts folder. A script file is removed from the index, and a folder causes the index to be rebuilt.
+     * @param path The path of the file or folder that was deleted
+     */
+    protected synchronized void deleted(Path path) {
+        if (stale || paths == null)
+            return;
+
+        //The path no longer exists, so whether it was a folder is looked up from the index
+        if (folderTimes.containsKey(path))
+            stale = true;
+        else if (paths.contains(path)) {
+            SortedSet<Path> updated = new TreeSet<>(paths);
+            updated.remove(path);
+            setPaths(updated);
+        }
+    }
+
+    /**
+     * Set whether the scripts folder is being watched for changes. If it is, the index relies on {@link #invalidate()} being called and does not check folder modification times.
+     * @param watched True if the scripts folder is being watched, false if otherwise
+     */
+    public void setWatched(boolean watched) {
+        this.watched = watched;
+    }
+
+    private void refresh() {
+        if (!stale && !watched) {
+            long now = System.currentTimeMillis();
+            if (now - lastCheck >= CHECK_INTERVAL) {
+                lastCheck = now;
+                stale = !refreshChangedFolders();
+            }
+        }
+
+        if (stale) {
+            stale = false;
+            rebuild();
+        }
+    }
+
+    private boolean refreshChangedFolders() {
+        if (folderTimes.isEmpty())
+            return !Files.isDirectory(scriptsFolder);
+
+        for (Map.Entry<Path, FileTime> entry : new ArrayList<>(folderTimes.entrySet())) {
+            try {
+                FileTime time = Files.getLastModifiedTime(entry.getKey());
+                if (!time.equals(entry.getValue()) && !refreshFolder(entry.getKey(), time))
+                    return false;
+            } catch (IOException e) {
+                //The folder was deleted or moved
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean refreshFolder(Path folder, FileTime time) throws IOException {
+        Set<Path> files = new HashSet<>();
+        Set<Path> subfolders = new HashSet<>();
+        try (Stream<Path> stream = Files.list(folder)) {
+            stream.forEach(path -> {
+                if (Files.isDirectory(path))
+                    subfolders.add(path);
+                else if (Files.isRegularFile(path) && path.toString().endsWith(".py"))
+                    files.add(path);
+            });
+        }
+
+        //A subfolder was created or deleted, so the folder tree has to be walked again
+        for (Path known : folderTimes.keySet()) {
+            if (folder.equals(known.getParent()) && !subfolders.remove(known))
+                return false;
+        }
+        if (!subfolders.isEmpty())
+            return false;
+
+        SortedSet<Path> updated = new TreeSet<>(paths);
+        updated.removeIf(path -> folder.equals(path.getParent()) && !files.contains(path));
+        updated.addAll(files);
+        setPaths(updated);
+        folderTimes.put(folder, time);
+        return true;
+    }
+
+    private void rebuild() {
+        SortedSet<Path> paths = new TreeSet<>();
+        Map<Path, FileTime> folderTimes = new HashMap<>();
+
+        if (Files.isDirectory(scriptsFolder)) {
+            try (Stream<Path> stream = Files.walk(scriptsFolder)) {
+                stream.forEach(path -> {
+                    if (Files.isDirectory(path)) {
+                        try {
+                            folderTimes.put(path, Files.getLastModifiedTime(path));
+                        } catch (IOException ignored) {}
+                    } else if (Files.isRegularFile(path) && path.toString().endsWith(".py")) {
+                        paths.add(path);
+                    }
+                });
+            } catch (IOException e) {
+                PySpigot.get().getLogger().log(Level.SEVERE, "Error fetching script files from scripts folder", e);
+            }
+        }
+
+        setPaths(paths);
+        this.folderTimes = folderTimes;
+        this.lastCheck = System.currentTimeMillis();
+    }
+
+    private void setPaths(SortedSet<Path> paths) {
+        SortedSet<String> names = new TreeSet<>();
+        Map<String, Path> pathsByName = new HashMap<>();
+        for (Path path : paths) {
+            String fileName = path.getFileName().toString();
+            names.add(fileName);
+            pathsByName.putIfAbsent(fileName.toLowerCase(Locale.ROOT), path);
+        }
+
+        this.paths = Collections.unmodifiableSortedSet(paths);
+        this.names = Collections.unmodifiableSortedSet(names);
+        this.pathsByName = pathsByName;
+    }
+}
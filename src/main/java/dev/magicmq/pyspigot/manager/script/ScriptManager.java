@@ -28,18 +28,25 @@ import dev.magicmq.pyspigot.manager.placeholder.PlaceholderManager;
 import dev.magicmq.pyspigot.manager.protocol.ProtocolManager;
 import dev.magicmq.pyspigot.manager.redis.RedisManager;
 import dev.magicmq.pyspigot.manager.task.TaskManager;
+import dev.magicmq.pyspigot.util.ScriptUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.scheduler.BukkitTask;
 import org.python.core.*;
+import org.python.util.PythonInterpreter;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
-import java.util.stream.Stream;
 
 /**
  * Master manager class for PySpigot. Contains all logic to load, unload, and reload scripts.
@@ -49,17 +56,58 @@ import java.util.stream.Stream;
  */
 public class ScriptManager {
 
+    private static final int LOAD_SUMMARY_SIZE = 5;
+
     private static ScriptManager manager;
 
     private final Path scriptsFolder;
     private final LinkedHashMap<String, Script> scripts;
+    private final ScriptCache scriptCache;
+    private final SystemStatePool systemStatePool;
+    private final ScriptIndex scriptIndex;
+    private final SharedModuleCache sharedModuleCache;
+    private final LeakDetector leakDetector;
+    private final Set<String> loading;
+    private final ExecutorService loader;
+
+    private ScriptWatcher scriptWatcher;
+    private LoadReport lastLoadReport;
+    private List<String> sharedModuleNames;
+    private PrecompiledScripts precompiledScripts;
 
     private BukkitTask startScriptTask;
 
     private ScriptManager() {
         scriptsFolder = PySpigot.get().getDataFolderPath().resolve("scripts");
         this.scripts = new LinkedHashMap<>();
+        this.scriptCache = new ScriptCache();
+        this.systemStatePool = new SystemStatePool(PluginConfig.getSystemStatePoolSize());
+        this.scriptIndex = new ScriptIndex(scriptsFolder);
+        this.sharedModuleCache = new SharedModuleCache();
+        this.leakDetector = new LeakDetector();
+        this.loading = new HashSet<>();
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PySpigot Script Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (PluginConfig.isLeakDetectorEnabled())
+            leakDetector.start();
+
+        if (PluginConfig.isScriptWatcherEnabled() && !PluginConfig.getPrecompiledScripts().isEmpty()) {
+            PySpigot.get().getLogger().log(Level.INFO, "The script watcher is disabled because scripts are loaded from a precompiled jar");
+        } else if (PluginConfig.isScriptWatcherEnabled()) {
+            try {
+                scriptWatcher = new ScriptWatcher(scriptsFolder, scriptIndex, PluginConfig.getScriptWatcherDebounce());
+                scriptWatcher.start();
+            } catch (IOException e) {
+                PySpigot.get().getLogger().log(Level.SEVERE, "Error when starting the script watcher, scripts will not be reloaded automatically", e);
+            }
+        }
+    }
 
+    private void start() {
         if (PluginConfig.getScriptLoadDelay() > 0L)
             startScriptTask = Bukkit.getScheduler().runTaskLater(PySpigot.get(), this::loadScripts, PluginConfig.getScriptLoadDelay());
         else
@@ -73,50 +121,161 @@ public class ScriptManager {
         if (startScriptTask != null)
             startScriptTask.cancel();
 
+        if (scriptWatcher != null)
+            scriptWatcher.shutdown();
+
+        loader.shutdownNow();
+
         unloadScripts();
 
+        leakDetector.shutdown();
+        systemStatePool.shutdown();
+        sharedModuleCache.clear();
+
         Py.getSystemState().close();
     }
 
     /**
-     * Loads and runs all scripts contained within the scripts folder. Called on plugin load (I.E. during server start). Loads in the appropriate load order (see {@link Script#compareTo(Script)}).
+     * Loads and runs all scripts contained within the scripts folder. Called on plugin load (I.E. during server start).
+     * <p>
+     * Scripts are loaded after the scripts they depend on (see {@link ScriptOptions#getScriptDependencies()}). Scripts that do not depend on each other are grouped into levels; the scripts in a level are prepared and compiled in parallel, then run one after another in the appropriate load order (see {@link Script#compareTo(Script)}).
      */
     public void loadScripts() {
         PySpigot.get().getLogger().log(Level.INFO, "Loading scripts...");
 
-        //Init file names and paths, screen duplicate names
-        HashMap<String, Path> scriptFiles = new HashMap<>();
-        for (Path path : getAllScriptPaths()) {
-            String fileName = path.getFileName().toString();
-            Path existing = scriptFiles.putIfAbsent(fileName, path);
-            if (existing != null)
-                PySpigot.get().getLogger().log(Level.WARNING, "Duplicate script file name '" + fileName + "' with path '" + PySpigot.get().getDataFolderPath().relativize(path) + "'. Conflicts with '" + PySpigot.get().getDataFolderPath().relativize(existing) + "'.");
+        long loadStart = System.nanoTime();
+
+        scriptCache.resetStats();
+        sharedModuleCache.clear();
+        sharedModuleNames = PluginConfig.getSharedModules();
+        readPrecompiledScripts();
+
+        CommandManager.get().pauseCommandSync();
+        try {
+            //Init scripts and parse options
+            SortedSet<Script> toLoad = new TreeSet<>();
+            for (Map.Entry<String, Path> entry : getScriptFiles().entrySet()) {
+                toLoad.add(createScript(entry.getValue()));
+            }
+
+            loadInOrder(toLoad, loadStart);
+        } finally {
+            CommandManager.get().resumeCommandSync();
+        }
+
+        PySpigot.get().getLogger().log(Level.INFO, "Loaded " + scripts.size() + " script(s) in " + (lastLoadReport.getWallNanos() / 1000000) + " ms!");
+        logLoadSummary();
+    }
+
+    /**
+     * Reload only the scripts that changed since they were loaded. Unlike calling {@link #unloadScripts()} followed by {@link #loadScripts()}, scripts that did not change keep running untouched.
+     * <p>
+     * A loaded script is reloaded if its file contents changed, its options (including defaults from config.yml) changed, or its file was moved. A loaded script whose file was deleted is unloaded, and any script file that is not loaded is loaded. Changed scripts are unloaded in reverse load order and loaded again in load order, handing over their preserved globals and reusing their interpreters as described in {@link #reloadScript(Script)}, and the server's command list is synced once at the end instead of once per command.
+     * <p>
+     * <b>Note:</b> Changes to modules in the python-libs folder are not detected. If the list of shared modules in config.yml changed, all scripts are reloaded.
+     * @return The number of scripts that were unloaded, loaded, or reloaded
+     */
+    public int reloadChangedScripts() {
+        if (!PluginConfig.getSharedModules().equals(sharedModuleNames)) {
+            PySpigot.get().getLogger().log(Level.INFO, "Shared modules changed, reloading all scripts");
+            int unloaded = scripts.size();
+            unloadScripts();
+            loadScripts();
+            return Math.max(unloaded, scripts.size());
         }
 
-        //Init scripts and parse options
+        long loadStart = System.nanoTime();
+        scriptCache.resetStats();
+        readPrecompiledScripts();
+
+        Map<String, Path> scriptFiles = getScriptFiles();
+        Set<String> toUnload = new HashSet<>();
         SortedSet<Script> toLoad = new TreeSet<>();
-        for (Map.Entry<String, Path> entry : scriptFiles.entrySet()) {
-            ScriptOptions options;
-            try {
-                options = new ScriptOptions(entry.getKey());
-            } catch (InvalidConfigurationException e) {
-                PySpigot.get().getLogger().log(Level.SEVERE, "Error when initializing script options for script '" + entry.getKey() + "', the default values will be used for this script.", e);
-                options = new ScriptOptions();
+
+        for (Script script : scripts.values()) {
+            Path path = scriptFiles.get(script.getName());
+            if (path == null) {
+                toUnload.add(script.getName());
+                continue;
+            }
+
+            Script newScript = createScript(path);
+            if (!path.equals(script.getPath()) || !newScript.getOptions().equals(script.getOptions()) || !isSourceUnchanged(script)) {
+                toUnload.add(script.getName());
+                toLoad.add(newScript);
             }
-            Script script = new Script(entry.getValue(), entry.getKey(), options);
-            toLoad.add(script);
         }
 
-        //Run scripts in order with respect to load priority
+        //Scripts that depend on a changed script are unloaded along with it, so reload them too
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (Script script : scripts.values()) {
+                if (!toUnload.contains(script.getName()) && !Collections.disjoint(script.getOptions().getScriptDependencies(), toUnload)) {
+                    toUnload.add(script.getName());
+                    toLoad.add(createScript(scriptFiles.get(script.getName())));
+                    added = true;
+                }
+            }
+        }
+
+        for (Map.Entry<String, Path> entry : scriptFiles.entrySet()) {
+            if (!scripts.containsKey(entry.getKey()))
+                toLoad.add(createScript(entry.getValue()));
+        }
+
+        if (toUnload.isEmpty() && toLoad.isEmpty())
+            return 0;
+
+        int unchanged = scripts.size() - toUnload.size();
+
+        Set<String> reloading = new HashSet<>();
         for (Script script : toLoad) {
-            try {
-                loadScript(script);
-            } catch (IOException e) {
-                PySpigot.get().getLogger().log(Level.SEVERE, "Error when loading script '" + script.getName() + "': " + e.getMessage());
+            reloading.add(script.getName());
+        }
+
+        CommandManager.get().pauseCommandSync();
+        try {
+            //Scripts that are loaded again hand over their preserved globals and interpreter, the same as with reloadScript
+            Map<String, Map<String, PyObject>> preserved = new HashMap<>();
+            Map<String, PythonInterpreter> reused = new HashMap<>();
+            List<Script> loaded = new ArrayList<>(scripts.values());
+            Collections.reverse(loaded);
+            for (Script script : loaded) {
+                if (!toUnload.contains(script.getName()) || scripts.get(script.getName()) != script)
+                    continue;
+
+                if (reloading.contains(script.getName())) {
+                    Map<String, PyObject> scriptPreserved = new LinkedHashMap<>();
+                    //Scripts are unloaded in reverse load order, so scripts that depend on this one were already unloaded and are in toLoad
+                    PythonInterpreter interpreter = unloadForReload(script, scriptPreserved, new ArrayList<>());
+                    preserved.put(script.getName(), scriptPreserved);
+                    if (interpreter != null)
+                        reused.put(script.getName(), interpreter);
+                } else
+                    unloadScript(script, false);
+            }
+
+            loadInOrder(toLoad, loadStart, preserved, reused);
+
+            //Close interpreters of scripts that were not loaded again, such as scripts in a circular dependency
+            for (PythonInterpreter interpreter : reused.values()) {
+                interpreter.close();
             }
+        } finally {
+            CommandManager.get().resumeCommandSync();
+        }
+
+        int changed = toUnload.size();
+        for (Script script : toLoad) {
+            if (!toUnload.contains(script.getName()))
+                changed++;
         }
 
-        PySpigot.get().getLogger().log(Level.INFO, "Loaded " + scripts.size() + " script(s)!");
+        PySpigot.get().getLogger().log(Level.INFO, "Reloaded " + changed + " changed script(s) in " + (lastLoadReport.getWallNanos() / 1000000) + " ms, " + unchanged + " unchanged script(s) were left running");
+        logLoadSummary();
+
+        return changed;
     }
 
     /**
@@ -168,11 +327,7 @@ public class ScriptManager {
      */
     public RunResult loadScript(Path path) throws IOException {
         if (path != null) {
-            String fileName = path.getFileName().toString();
-            ScriptOptions options = getScriptOptions(path);
-            Script script = new Script(path, fileName, options);
-
-            return loadScript(script);
+            return loadScript(createScript(path));
         } else
             return RunResult.FAIL_SCRIPT_NOT_FOUND;
     }
@@ -184,8 +339,192 @@ public class ScriptManager {
      * @throws IOException If there was an IOException related to loading the script file
      */
     public RunResult loadScript(Script script) throws IOException {
-        //Check if another script is already running with the same name
-        if (scripts.containsKey(script.getName())) {
+        return loadScript(script, null, null);
+    }
+
+    /**
+     * Reload a script with the given name. If the script is not loaded, it will simply be loaded.
+     * @param name The file name of the script to reload. Name should contain the file extension (.py)
+     * @return A {@link RunResult} describing the outcome of the load operation
+     * @throws IOException If there was an IOException related to loading the script file
+     * @see #reloadScript(Script)
+     */
+    public RunResult reloadScript(String name) throws IOException {
+        Script script = getScript(name);
+        if (script != null)
+            return reloadScript(script);
+        else
+            return loadScript(name);
+    }
+
+    /**
+     * Reload a loaded script, handing over the values of its preserved globals to the new interpreter.
+     * <p>
+     * After the script's stop function is called, the current value of each global listed under preserve-globals in the script's options is taken from the old interpreter. These objects are set as globals in the new interpreter before the script is executed, so the script can check if they are already defined instead of rebuilding them. Objects are handed over as they are, without being copied or serialized.
+     * <p>
+     * <b>Note:</b> Functions and classes defined in the script are not handed over, because they would keep running in the old script's globals. Instances of classes defined in the script are handed over with a warning, but they will keep using the old class definition, so isinstance checks against the new class will fail. Prefer preserving built-in or Java objects, such as dicts, lists, and connections.
+     * <p>
+     * Loaded scripts that depend on the script are unloaded before it, and loaded again after it.
+     * @param script The script to reload
+     * @return A {@link RunResult} describing the outcome of the load operation
+     * @throws IOException If there was an IOException related to loading the script file
+     */
+    public RunResult reloadScript(Script script) throws IOException {
+        List<Script> dependents = new ArrayList<>();
+        Map<String, PyObject> preserved = new LinkedHashMap<>();
+        PythonInterpreter reused = unloadForReload(script, preserved, dependents);
+        Script newScript = createScript(script.getPath());
+        RunResult result = loadScript(newScript, preserved, reused);
+        reloadDependents(dependents);
+        return result;
+    }
+
+    /**
+     * Load a script with the given name asynchronously.
+     * @param name The file name of the script to load. Name should contain the file extension (.py)
+     * @return A future that completes on the main thread with a {@link RunResult} describing the outcome of the load operation
+     * @see #loadScriptAsync(Script)
+     */
+    public CompletableFuture<RunResult> loadScriptAsync(String name) {
+        Path path = getScriptPath(name);
+        if (path != null)
+            return loadScriptAsync(createScript(path));
+        else
+            return CompletableFuture.completedFuture(RunResult.FAIL_SCRIPT_NOT_FOUND);
+    }
+
+    /**
+     * Load the given script asynchronously. Should be called from the main thread.
+     * <p>
+     * Loading is split into two stages. Reading the script file, building the script's interpreter and logger, and compiling the script happen on a separate thread. Only executing the script's code and calling its start function, which may use the Bukkit API, happen on the main thread, so the server does not freeze while a large script is compiled.
+     * @param script The script that should be loaded
+     * @return A future that completes on the main thread with a {@link RunResult} describing the outcome of the load operation. Completes exceptionally with an {@link IOException} if there was an IOException related to loading the script file
+     */
+    public CompletableFuture<RunResult> loadScriptAsync(Script script) {
+        return loadScriptAsync(script, null, null);
+    }
+
+    /**
+     * Reload a script with the given name asynchronously. If the script is not loaded, it will simply be loaded asynchronously.
+     * @param name The file name of the script to reload. Name should contain the file extension (.py)
+     * @return A future that completes on the main thread with a {@link RunResult} describing the outcome of the load operation
+     * @see #reloadScriptAsync(Script)
+     */
+    public CompletableFuture<RunResult> reloadScriptAsync(String name) {
+        Script script = getScript(name);
+        if (script != null)
+            return reloadScriptAsync(script);
+        else
+            return loadScriptAsync(name);
+    }
+
+    /**
+     * Reload a loaded script asynchronously, handing over the values of its preserved globals to the new interpreter. Should be called from the main thread.
+     * <p>
+     * The script is stopped immediately, then loaded again as described in {@link #loadScriptAsync(Script)}. See {@link #reloadScript(Script)} for details on how preserved globals and scripts that depend on the script are handled.
+     * @param script The script to reload
+     * @return A future that completes on the main thread with a {@link RunResult} describing the outcome of the load operation. Completes exceptionally with an {@link IOException} if there was an IOException related to loading the script file
+     */
+    public CompletableFuture<RunResult> reloadScriptAsync(Script script) {
+        List<Script> dependents = new ArrayList<>();
+        Map<String, PyObject> preserved = new LinkedHashMap<>();
+        PythonInterpreter reused = unloadForReload(script, preserved, dependents);
+        Script newScript = createScript(script.getPath());
+        return loadScriptAsync(newScript, preserved, reused).whenComplete((result, throwable) -> {
+            //The future is cancelled off the main thread if the plugin was disabled during loading
+            if (!(throwable instanceof CancellationException))
+                reloadDependents(dependents);
+        });
+    }
+
+    private CompletableFuture<RunResult> loadScriptAsync(Script script, Map<String, PyObject> preserved, PythonInterpreter reused) {
+        RunResult checkResult = checkScript(script);
+        if (checkResult != null) {
+            if (reused != null)
+                reused.close();
+            return CompletableFuture.completedFuture(checkResult);
+        }
+
+        if (PluginConfig.doScriptActionLogging())
+            PySpigot.get().getLogger().log(Level.INFO, "Loading script '" + script.getName() + "'");
+
+        loading.add(script.getName());
+
+        CompletableFuture<RunResult> result = new CompletableFuture<>();
+        loader.execute(() -> {
+            PyCode code = null;
+            Throwable error = null;
+            try {
+                long prepareStart = System.nanoTime();
+                script.prepare(reused);
+                script.getLoadTimings().record(LoadPhase.PREPARE, System.nanoTime() - prepareStart);
+                code = compile(script);
+            } catch (Throwable throwable) {
+                error = throwable;
+            }
+
+            PyCode compiled = code;
+            Throwable prepareError = error;
+            try {
+                Bukkit.getScheduler().runTask(PySpigot.get(), () -> {
+                    loading.remove(script.getName());
+
+                    if (prepareError instanceof PyException pyException && script.getLogger() != null) {
+                        scripts.put(script.getName(), script);
+                        result.complete(handleLoadError(script, pyException));
+                    } else if (prepareError != null) {
+                        if (script.getLogger() != null)
+                            script.close();
+                        result.completeExceptionally(prepareError);
+                    } else {
+                        scripts.put(script.getName(), script);
+                        result.complete(runScript(script, compiled, preserved));
+                    }
+                });
+            } catch (IllegalPluginAccessException e) {
+                //The plugin was disabled while the script was being prepared
+                if (script.getLogger() != null)
+                    script.close();
+                result.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private RunResult loadScript(Script script, Map<String, PyObject> preserved, PythonInterpreter reused) throws IOException {
+        RunResult checkResult = checkScript(script);
+        if (checkResult != null) {
+            if (reused != null)
+                reused.close();
+            return checkResult;
+        }
+
+        if (PluginConfig.doScriptActionLogging())
+            PySpigot.get().getLogger().log(Level.INFO, "Loading script '" + script.getName() + "'");
+
+        scripts.put(script.getName(), script);
+
+        long prepareStart = System.nanoTime();
+        script.prepare(reused);
+        script.getLoadTimings().record(LoadPhase.PREPARE, System.nanoTime() - prepareStart);
+
+        PyCode code;
+        try {
+            code = compile(script);
+        } catch (PyException e) {
+            return handleLoadError(script, e);
+        } catch (IOException e) {
+            scripts.remove(script.getName());
+            script.close();
+            throw e;
+        }
+
+        return runScript(script, code, preserved);
+    }
+
+    private RunResult checkScript(Script script) {
+        //Check if another script is already running or being loaded with the same name
+        if (scripts.containsKey(script.getName()) || loading.contains(script.getName())) {
             PySpigot.get().getLogger().log(Level.WARNING, "Attempted to load script '" + script.getName() + "', but there is already a loaded script with this name.");
             return RunResult.FAIL_DUPLICATE;
         }
@@ -207,43 +546,74 @@ public class ScriptManager {
             return RunResult.FAIL_PLUGIN_DEPENDENCY;
         }
 
-        if (PluginConfig.doScriptActionLogging())
-            PySpigot.get().getLogger().log(Level.INFO, "Loading script '" + script.getName() + "'");
+        //Check if the scripts this script depends on are all loaded
+        List<String> unresolvedScriptDependencies = new ArrayList<>();
+        for (String dependency : script.getOptions().getScriptDependencies()) {
+            if (!scripts.containsKey(dependency)) {
+                unresolvedScriptDependencies.add(dependency);
+            }
+        }
+        if (!unresolvedScriptDependencies.isEmpty()) {
+            PySpigot.get().getLogger().log(Level.WARNING, "The following script dependencies for script '" + script.getName() + "' are not loaded: " + unresolvedScriptDependencies + ". This script will not be loaded.");
+            return RunResult.FAIL_SCRIPT_DEPENDENCY;
+        }
 
-        scripts.put(script.getName(), script);
+        return null;
+    }
 
-        script.prepare();
-        try (FileInputStream scriptFileReader = new FileInputStream(script.getFile())) {
+    private RunResult runScript(Script script, PyCode code, Map<String, PyObject> preserved) {
+        try {
             script.initPermissions();
 
-            script.getInterpreter().execfile(scriptFileReader, script.getName());
+            if (preserved != null && !preserved.isEmpty()) {
+                for (Map.Entry<String, PyObject> entry : preserved.entrySet()) {
+                    script.getInterpreter().set(entry.getKey(), entry.getValue());
+                }
+
+                if (PluginConfig.doScriptActionLogging())
+                    PySpigot.get().getLogger().log(Level.INFO, "Handed over " + preserved.size() + " preserved global(s) to script '" + script.getName() + "'");
+            }
 
-            PyObject start = script.getInterpreter().get("start");
-            if (start instanceof PyFunction)
-                start.__call__();
+            ScriptContext.enter(script);
+            try {
+                long executeStart = System.nanoTime();
+                script.getInterpreter().exec(code);
+                script.getLoadTimings().record(LoadPhase.EXECUTE, System.nanoTime() - executeStart);
+
+                PyObject start = script.getInterpreter().get("start");
+                if (start instanceof PyFunction) {
+                    long startStart = System.nanoTime();
+                    start.__call__();
+                    script.getLoadTimings().record(LoadPhase.START, System.nanoTime() - startStart);
+                }
+            } finally {
+                ScriptContext.exit();
+            }
 
+            long eventStart = System.nanoTime();
             ScriptLoadEvent eventLoad = new ScriptLoadEvent(script);
             Bukkit.getPluginManager().callEvent(eventLoad);
+            script.getLoadTimings().record(LoadPhase.LOAD_EVENT, System.nanoTime() - eventStart);
 
             if (PluginConfig.doScriptActionLogging())
                 PySpigot.get().getLogger().log(Level.INFO, "Loaded script '" + script.getName() + "'");
 
             return RunResult.SUCCESS;
-        } catch (PySyntaxError | PyIndentationError e) {
+        } catch (PyException e) {
+            return handleLoadError(script, e);
+        }
+    }
+
+    private RunResult handleLoadError(Script script, PyException e) {
+        if (e instanceof PySyntaxError || e instanceof PyIndentationError) {
             handleScriptException(script, e, "Syntax/indentation error");
             script.getLogger().log(Level.SEVERE, "Script unloaded due to a syntax/indentation error.");
-            unloadScript(script, true);
-            return RunResult.FAIL_ERROR;
-        } catch (PyException e) {
+        } else {
             handleScriptException(script, e, "Runtime error");
             script.getLogger().log(Level.SEVERE, "Script unloaded due to a runtime error.");
-            unloadScript(script, true);
-            return RunResult.FAIL_ERROR;
-        } catch (IOException e) {
-            scripts.remove(script.getName());
-            script.close();
-            throw e;
         }
+        unloadScript(script, true);
+        return RunResult.FAIL_ERROR;
     }
 
     /**
@@ -252,13 +622,19 @@ public class ScriptManager {
     public void unloadScripts() {
         List<Script> toUnload = new ArrayList<>(scripts.values());
         Collections.reverse(toUnload);
-        for (Script script : toUnload) {
-            ScriptUnloadEvent event = new ScriptUnloadEvent(script, false);
-            Bukkit.getPluginManager().callEvent(event);
-            stopScript(script, false);
-
-            if (PluginConfig.doScriptActionLogging())
-                PySpigot.get().getLogger().log(Level.INFO, "Unloaded script '" + script.getName() + "'");
+        CommandManager.get().pauseCommandSync();
+        try {
+            for (Script script : toUnload) {
+                ScriptUnloadEvent event = new ScriptUnloadEvent(script, false);
+                Bukkit.getPluginManager().callEvent(event);
+                stopScript(script, false, null);
+                closeScript(script);
+
+                if (PluginConfig.doScriptActionLogging())
+                    PySpigot.get().getLogger().log(Level.INFO, "Unloaded script '" + script.getName() + "'");
+            }
+        } finally {
+            CommandManager.get().resumeCommandSync();
         }
         scripts.clear();
     }
@@ -273,16 +649,19 @@ public class ScriptManager {
     }
 
     /**
-     * Unload a given script.
+     * Unload a given script. Loaded scripts that depend on the script are unloaded first, in the reverse order that they were loaded.
      * @param script The script to unload
      * @param error If the script unload was due to an error, pass true. Otherwise, pass false. This value will be passed on to {@link ScriptUnloadEvent}
      * @return True if the script was successfully unloaded, false if otherwise
      */
     public boolean unloadScript(Script script, boolean error) {
+        unloadDependents(script, new ArrayList<>());
+
         ScriptUnloadEvent event = new ScriptUnloadEvent(script, error);
         Bukkit.getPluginManager().callEvent(event);
 
-        boolean gracefulStop = stopScript(script, error);
+        boolean gracefulStop = stopScript(script, error, null);
+        closeScript(script);
 
         scripts.remove(script.getName());
 
@@ -330,6 +709,46 @@ public class ScriptManager {
             exception.printStackTrace();
     }
 
+    /**
+     * Get the {@link ScriptCache}, which caches compiled script bytecode on disk.
+     * @return The script cache
+     */
+    public ScriptCache getScriptCache() {
+        return scriptCache;
+    }
+
+    /**
+     * Get the {@link SharedModuleCache}, which holds library modules shared by all script interpreters.
+     * @return The shared module cache
+     */
+    public SharedModuleCache getSharedModuleCache() {
+        return sharedModuleCache;
+    }
+
+    /**
+     * Get the report of the time each script spent in each phase of loading, from the last time all scripts were loaded.
+     * @return The last load report, or null if scripts have not been loaded yet
+     */
+    public LoadReport getLastLoadReport() {
+        return lastLoadReport;
+    }
+
+    /**
+     * Get the {@link LeakDetector}, which reports unloaded scripts that are never garbage collected.
+     * @return The leak detector
+     */
+    public LeakDetector getLeakDetector() {
+        return leakDetector;
+    }
+
+    /**
+     * Get the {@link SystemStatePool}, which holds pre-built system states for script interpreters.
+     * @return The system state pool
+     */
+    public SystemStatePool getSystemStatePool() {
+        return systemStatePool;
+    }
+
     /**
      * Check if a script with the given name is currently loaded.
      * @param name The name of the script to check. Name should contain the script file extension (.py)
@@ -340,16 +759,16 @@ public class ScriptManager {
     }
 
     /**
-     * Attempts to resolve the absolute path for a script in the scripts folder based on the file name by searching through the scripts folder. Subfolders are also searched. If there are multiple matching files in different subfolders, the first match will be returned.
+     * Attempts to resolve the absolute path for a script in the scripts folder based on the file name. Subfolders are also searched. If there are multiple matching files in different subfolders, the first match will be returned.
+     * <p>
+     * Lookups are served from the {@link ScriptIndex}, so the scripts folder is not searched on every call. If scripts are loaded from a precompiled jar, lookups are served from the jar instead (see {@link PrecompiledScripts}).
      * @param name The name of the script file to search for
      * @return The absolute path of the matching file, or null if no matching file was found
      */
     public Path getScriptPath(String name) {
-        for (Path path : getAllScriptPaths()) {
-            if (path.getFileName().toString().equalsIgnoreCase(name))
-                return path;
-        }
-        return null;
+        if (precompiledScripts != null)
+            return precompiledScripts.getPath(name);
+        return scriptIndex.getPath(name);
     }
 
     /**
@@ -382,18 +801,9 @@ public class ScriptManager {
      * @return An immutable {@link java.util.SortedSet} of Paths representing the absolute paths of all script files
      */
     public SortedSet<Path> getAllScriptPaths() {
-        SortedSet<Path> scripts = new TreeSet<>();
-
-        if (Files.exists(scriptsFolder) && Files.isDirectory(scriptsFolder)) {
-            try (Stream<Path> stream = Files.walk(scriptsFolder)) {
-                stream.filter(Files::isRegularFile)
-                        .filter(path -> path.toString().endsWith(".py"))
-                        .forEach(scripts::add);
-            } catch (IOException e) {
-                PySpigot.get().getLogger().log(Level.SEVERE, "Error fetching script files from scripts folder", e);
-            }
-        }
-        return scripts;
+        if (precompiledScripts != null)
+            return precompiledScripts.getPaths();
+        return scriptIndex.getPaths();
     }
 
     /**
@@ -401,35 +811,324 @@ public class ScriptManager {
      * @return An immutable {@link java.util.SortedSet} of Strings representing the names of all script files (including in subfolders)
      */
     public SortedSet<String> getAllScriptNames() {
-        SortedSet<String> scripts = new TreeSet<>();
-
-        if (Files.exists(scriptsFolder) && Files.isDirectory(scriptsFolder)) {
-            try (Stream<Path> stream = Files.walk(scriptsFolder)) {
-                stream.filter(Files::isRegularFile)
-                        .filter(path -> path.toString().endsWith(".py"))
-                        .map(path -> path.getFileName().toString())
-                        .forEach(scripts::add);
-            } catch (IOException e) {
-                PySpigot.get().getLogger().log(Level.SEVERE, "Error fetching script files from scripts folder", e);
+        if (precompiledScripts != null)
+            return precompiledScripts.getNames();
+        return scriptIndex.getNames();
+    }
+
+    private Map<String, Path> getScriptFiles() {
+        //Init file names and paths, screen duplicate names
+        HashMap<String, Path> scriptFiles = new HashMap<>();
+        for (Path path : getAllScriptPaths()) {
+            String fileName = path.getFileName().toString();
+            Path existing = scriptFiles.putIfAbsent(fileName, path);
+            if (existing != null)
+                PySpigot.get().getLogger().log(Level.WARNING, "Duplicate script file name '" + fileName + "' with path '" + PySpigot.get().getDataFolderPath().relativize(path) + "'. Conflicts with '" + PySpigot.get().getDataFolderPath().relativize(existing) + "'.");
+        }
+        return scriptFiles;
+    }
+
+    private void loadInOrder(SortedSet<Script> toLoad, long loadStart) {
+        loadInOrder(toLoad, loadStart, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    private void loadInOrder(SortedSet<Script> toLoad, long loadStart, Map<String, Map<String, PyObject>> preserved, Map<String, PythonInterpreter> reused) {
+        loadLevels(toLoad, preserved, reused);
+
+        List<Map.Entry<String, LoadTimings>> timings = new ArrayList<>();
+        for (Script script : toLoad) {
+            if (script.getOptions().isEnabled())
+                timings.add(Map.entry(script.getName(), script.getLoadTimings()));
+        }
+        lastLoadReport = new LoadReport(System.nanoTime() - loadStart, timings);
+    }
+
+    private void loadLevels(SortedSet<Script> toLoad, Map<String, Map<String, PyObject>> preserved, Map<String, PythonInterpreter> reused) {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        for (Script script : toLoad) {
+            dependencies.put(script.getName(), script.getOptions().getScriptDependencies());
+        }
+
+        //Group scripts into levels, each script is in a higher level than all of the scripts it depends on
+        Map<String, Integer> levels = new HashMap<>();
+        SortedMap<Integer, List<Script>> byLevel = new TreeMap<>();
+        for (Script script : toLoad) {
+            int level = getLevel(script.getName(), dependencies, levels, new HashSet<>());
+            if (level < 0) {
+                PySpigot.get().getLogger().log(Level.SEVERE, "Script '" + script.getName() + "' is part of a circular script dependency or depends on a script that is. This script will not be loaded.");
+                continue;
+            }
+            byLevel.computeIfAbsent(level, key -> new ArrayList<>()).add(script);
+        }
+
+        int threads = PluginConfig.getScriptCompileThreads();
+        if (threads <= 0)
+            threads = Runtime.getRuntime().availableProcessors();
+        threads = Math.max(1, Math.min(threads, toLoad.size()));
+
+        ExecutorService preparer = Executors.newFixedThreadPool(threads);
+        try {
+            for (List<Script> level : byLevel.values()) {
+                loadLevel(level, preparer, preserved, reused);
+            }
+        } finally {
+            preparer.shutdown();
+        }
+    }
+
+    /**
+     * Get the load level of a script. A script with no dependencies among the scripts being loaded is in level 0, and every other script is in a level one higher than the highest level of the scripts it depends on.
+     * @param script The name of the script
+     * @param dependencies The script dependencies of each script being loaded, by script name
+     * @param levels Levels that were already computed, by script name. The level of the script and of its dependencies is added to this map
+     * @param visiting The names of the scripts whose level is currently being computed, used to detect circular dependencies
+     * @return The level of the script, or -1 if the script is part of a circular dependency or depends on a script that is
+     */
+    protected static int getLevel(String script, Map<String, List<String>> dependencies, Map<String, Integer> levels, Set<String> visiting) {
+        Integer known = levels.get(script);
+        if (known != null)
+            return known;
+
+        if (!visiting.add(script))
+            return -1;
+
+        int level = 0;
+        for (String dependency : dependencies.get(script)) {
+            //Dependencies that are not being loaded are either already loaded or missing, which is checked when the script is loaded
+            if (!dependencies.containsKey(dependency))
+                continue;
+
+            int dependencyLevel = getLevel(dependency, dependencies, levels, visiting);
+            if (dependencyLevel < 0) {
+                level = -1;
+                break;
+            }
+            level = Math.max(level, dependencyLevel + 1);
+        }
+
+        visiting.remove(script);
+        levels.put(script, level);
+        return level;
+    }
+
+    private void loadLevel(List<Script> level, ExecutorService preparer, Map<String, Map<String, PyObject>> preserved, Map<String, PythonInterpreter> reused) {
+        //Scripts in the same level do not depend on each other, so prepare and compile them in parallel
+        Map<Script, CompletableFuture<PyCode>> prepared = new LinkedHashMap<>();
+        for (Script script : level) {
+            PythonInterpreter interpreter = reused.remove(script.getName());
+            if (checkScript(script) != null) {
+                if (interpreter != null)
+                    interpreter.close();
+                continue;
+            }
+
+            loading.add(script.getName());
+            prepared.put(script, CompletableFuture.supplyAsync(() -> {
+                long prepareStart = System.nanoTime();
+                script.prepare(interpreter);
+                script.getLoadTimings().record(LoadPhase.PREPARE, System.nanoTime() - prepareStart);
+                try {
+                    return compile(script);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, preparer));
+        }
+
+        //Run scripts in order with respect to load priority
+        for (Map.Entry<Script, CompletableFuture<PyCode>> entry : prepared.entrySet()) {
+            Script script = entry.getKey();
+            loading.remove(script.getName());
+
+            if (PluginConfig.doScriptActionLogging())
+                PySpigot.get().getLogger().log(Level.INFO, "Loading script '" + script.getName() + "'");
+
+            PyCode code;
+            try {
+                code = entry.getValue().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof PyException pyException && script.getLogger() != null) {
+                    scripts.put(script.getName(), script);
+                    handleLoadError(script, pyException);
+                } else {
+                    if (script.getLogger() != null)
+                        script.close();
+                    Throwable cause = e.getCause() instanceof UncheckedIOException ioException ? ioException.getCause() : e.getCause();
+                    PySpigot.get().getLogger().log(Level.SEVERE, "Error when loading script '" + script.getName() + "': " + cause.getMessage());
+                }
+                continue;
+            }
+
+            scripts.put(script.getName(), script);
+            runScript(script, code, preserved.get(script.getName()));
+        }
+    }
+
+    private void reloadDependents(List<Script> dependents) {
+        if (dependents.isEmpty())
+            return;
+
+        SortedSet<Script> toLoad = new TreeSet<>();
+        for (Script dependent : dependents) {
+            toLoad.add(createScript(dependent.getPath()));
+        }
+        loadLevels(toLoad, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    private void logLoadSummary() {
+        if (!lastLoadReport.getEntries().isEmpty()) {
+            StringBuilder summary = new StringBuilder("Slowest scripts to load:");
+            List<Map.Entry<String, LoadTimings>> entries = lastLoadReport.getEntries();
+            for (int i = 0; i < Math.min(LOAD_SUMMARY_SIZE, entries.size()); i++) {
+                LoadTimings scriptTimings = entries.get(i).getValue();
+                LoadPhase slowest = scriptTimings.getSlowestPhase();
+                summary.append("\n    ").append(entries.get(i).getKey()).append(": ").append(LoadTimings.formatNanos(scriptTimings.getTotalNanos()))
+                        .append(" (").append(slowest.getDisplayName()).append(": ").append(LoadTimings.formatNanos(scriptTimings.getNanos(slowest))).append(")");
+            }
+            PySpigot.get().getLogger().log(Level.INFO, summary.toString());
+        }
+        if (PluginConfig.isScriptCacheEnabled())
+            PySpigot.get().getLogger().log(Level.INFO, "Script cache: " + scriptCache.getHits() + " hit(s), " + scriptCache.getMisses() + " miss(es)");
+        if (sharedModuleCache.getModuleCount() > 0)
+            PySpigot.get().getLogger().log(Level.INFO, "Shared modules: " + sharedModuleCache.getModuleCount() + " module(s) shared, approximately " + (sharedModuleCache.getBytesSaved() / 1024) + " KB saved");
+    }
+
+    private boolean isSourceUnchanged(Script script) {
+        if (precompiledScripts != null)
+            return script.getSourceHash() != null && script.getSourceHash().equals(precompiledScripts.getSourceHash(script.getName()));
+
+        try {
+            return ScriptUtils.hashSource(Files.readAllBytes(script.getPath())).equals(script.getSourceHash());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void readPrecompiledScripts() {
+        String jarName = PluginConfig.getPrecompiledScripts();
+        if (jarName.isEmpty()) {
+            precompiledScripts = null;
+            return;
+        }
+
+        Path jar = PySpigot.get().getDataFolderPath().resolve(jarName);
+        try {
+            precompiledScripts = PrecompiledScripts.read(jar, scriptsFolder);
+            PySpigot.get().getLogger().log(Level.INFO, "Loading " + precompiledScripts.getNames().size() + " precompiled script(s) from '" + jarName + "'");
+        } catch (IOException e) {
+            precompiledScripts = null;
+            PySpigot.get().getLogger().log(Level.SEVERE, "Error when reading precompiled scripts from '" + jarName + "', scripts will be loaded from the scripts folder instead", e);
+        }
+    }
+
+    private Script createScript(Path path) {
+        long start = System.nanoTime();
+        Script script = new Script(path, path.getFileName().toString(), getScriptOptions(path));
+        script.getLoadTimings().record(LoadPhase.OPTIONS, System.nanoTime() - start);
+        return script;
+    }
+
+    private PyCode compile(Script script) throws IOException {
+        PrecompiledScripts precompiled = precompiledScripts;
+        if (precompiled != null) {
+            long loadStart = System.nanoTime();
+            PyCode code = precompiled.getCode(script);
+            if (code == null)
+                throw new IOException("Script '" + script.getName() + "' was not found in precompiled scripts jar '" + precompiled.getJar().getFileName() + "'");
+            script.getLoadTimings().record(LoadPhase.COMPILE, System.nanoTime() - loadStart);
+            return code;
+        }
+
+        long readStart = System.nanoTime();
+        byte[] source = Files.readAllBytes(script.getPath());
+        script.setSourceHash(ScriptUtils.hashSource(source));
+        script.getLoadTimings().record(LoadPhase.READ, System.nanoTime() - readStart);
+
+        long compileStart = System.nanoTime();
+        PyCode code = scriptCache.getCode(script, source);
+        script.getLoadTimings().record(LoadPhase.COMPILE, System.nanoTime() - compileStart);
+        return code;
+    }
+
+    private PythonInterpreter unloadForReload(Script script, Map<String, PyObject> preserved, List<Script> dependents) {
+        unloadDependents(script, dependents);
+
+        ScriptUnloadEvent event = new ScriptUnloadEvent(script, false);
+        Bukkit.getPluginManager().callEvent(event);
+
+        if (!stopScript(script, false, preserved))
+            PySpigot.get().getLogger().log(Level.WARNING, "Script '" + script.getName() + "' did not stop gracefully before being reloaded");
+
+        PythonInterpreter reused = null;
+        if (PluginConfig.isInterpreterReuseEnabled()) {
+            List<Thread> threads = ScriptUtils.getScriptThreads(script.getName());
+            threads.remove(Thread.currentThread());
+            if (threads.isEmpty())
+                reused = resetScript(script);
+            else {
+                List<String> threadNames = new ArrayList<>();
+                for (Thread thread : threads) {
+                    threadNames.add(thread.getName());
+                }
+                PySpigot.get().getLogger().log(Level.WARNING, "Not reusing the interpreter of script '" + script.getName() + "' because the following threads are still running its code: " + String.join(", ", threadNames));
             }
         }
-        return scripts;
+        if (reused == null)
+            closeScript(script);
+
+        scripts.remove(script.getName());
+
+        if (PluginConfig.doScriptActionLogging())
+            PySpigot.get().getLogger().log(Level.INFO, "Unloaded script '" + script.getName() + "'");
+
+        return reused;
+    }
+
+    private void unloadDependents(Script script, List<Script> unloaded) {
+        List<Script> loaded = new ArrayList<>(scripts.values());
+        Collections.reverse(loaded);
+        for (Script dependent : loaded) {
+            if (scripts.get(dependent.getName()) != dependent || !dependent.getOptions().getScriptDependencies().contains(script.getName()))
+                continue;
+
+            //Unload scripts that depend on the dependent first
+            unloadDependents(dependent, unloaded);
+
+            PySpigot.get().getLogger().log(Level.INFO, "Unloading script '" + dependent.getName() + "' because it depends on script '" + script.getName() + "'");
+
+            ScriptUnloadEvent event = new ScriptUnloadEvent(dependent, false);
+            Bukkit.getPluginManager().callEvent(event);
+            stopScript(dependent, false, null);
+            closeScript(dependent);
+            scripts.remove(dependent.getName());
+
+            if (PluginConfig.doScriptActionLogging())
+                PySpigot.get().getLogger().log(Level.INFO, "Unloaded script '" + dependent.getName() + "'");
+
+            unloaded.add(dependent);
+        }
     }
 
-    private boolean stopScript(Script script, boolean error) {
+    private boolean stopScript(Script script, boolean error, Map<String, PyObject> preserved) {
         boolean gracefulStop = true;
         if (!error) {
             PyObject stop = script.getInterpreter().get("stop");
             if (stop instanceof PyFunction) {
+                ScriptContext.enter(script);
                 try {
                     stop.__call__();
                 } catch (PyException e) {
                     handleScriptException(script, e, "Error when calling stop function");
                     gracefulStop = false;
+                } finally {
+                    ScriptContext.exit();
                 }
             }
         }
 
+        if (preserved != null)
+            collectPreservedGlobals(script, preserved);
+
         script.removePermissions();
 
         ListenerManager.get().unregisterListeners(script);
@@ -447,9 +1146,53 @@ public class ScriptManager {
             PlaceholderManager.get().unregisterPlaceholder(script);
         }
 
+        return gracefulStop;
+    }
+
+    private void closeScript(Script script) {
         script.close();
 
-        return gracefulStop;
+        if (PluginConfig.isLeakDetectorEnabled())
+            leakDetector.track(script, true);
+    }
+
+    private PythonInterpreter resetScript(Script script) {
+        PythonInterpreter interpreter = script.resetForReuse();
+
+        if (PluginConfig.isLeakDetectorEnabled())
+            leakDetector.track(script, false);
+
+        return interpreter;
+    }
+
+    private void collectPreservedGlobals(Script script, Map<String, PyObject> preserved) {
+        PyObject locals = script.getInterpreter().getLocals();
+        for (String name : script.getOptions().getPreservedGlobals()) {
+            PyObject value = script.getInterpreter().get(name);
+            if (value == null)
+                continue;
+
+            if (value instanceof PyFunction function && function.__globals__ == locals) {
+                script.getLogger().log(Level.WARNING, "Preserved global '" + name + "' is a function defined in the script, it will not be handed over");
+                continue;
+            }
+
+            if ((value instanceof PyType || value instanceof PyClass) && isDefinedInScript(value)) {
+                script.getLogger().log(Level.WARNING, "Preserved global '" + name + "' is a class defined in the script, it will not be handed over");
+                continue;
+            }
+
+            //Instances are found through their class, so this also matches instances of classes defined in the script
+            if (isDefinedInScript(value))
+                script.getLogger().log(Level.WARNING, "Preserved global '" + name + "' is an instance of a class defined in the script, it will keep using the old class definition");
+
+            preserved.put(name, value);
+        }
+    }
+
+    private static boolean isDefinedInScript(PyObject value) {
+        PyObject module = value.__findattr__("__module__");
+        return module instanceof PyString && module.toString().equals("__main__");
     }
 
     /**
@@ -457,8 +1200,11 @@ public class ScriptManager {
      * @return The instance
      */
     public static ScriptManager get() {
-        if (manager == null)
+        if (manager == null) {
+            //Assign the instance before loading scripts, since loading scripts calls get()
             manager = new ScriptManager();
+            manager.start();
+        }
         return manager;
     }
 }
@@ -24,6 +24,7 @@ import org.bukkit.permissions.PermissionDefault;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.logging.Level;
 
 /**
@@ -34,6 +35,9 @@ public class ScriptOptions {
     private final boolean enabled;
     private final int loadPriority;
     private final List<String> pluginDepend;
+    private final List<String> scriptDepend;
+    private final List<String> preserveGlobals;
+    private final long asyncCpuQuota;
     private final boolean fileLoggingEnabled;
     private final Level minLoggingLevel;
     private final PermissionDefault permissionDefault;
@@ -46,6 +50,9 @@ public class ScriptOptions {
         this.enabled = PluginConfig.scriptOptionEnabled();
         this.loadPriority = PluginConfig.scriptOptionLoadPriority();
         this.pluginDepend = PluginConfig.scriptOptionPluginDepend();
+        this.scriptDepend = PluginConfig.scriptOptionScriptDepend();
+        this.preserveGlobals = PluginConfig.scriptOptionPreserveGlobals();
+        this.asyncCpuQuota = PluginConfig.scriptOptionAsyncCpuQuota();
         this.fileLoggingEnabled = PluginConfig.scriptOptionFileLoggingEnabled();
         this.minLoggingLevel = Level.parse(PluginConfig.scriptOptionMinLoggingLevel());
         this.permissionDefault = PermissionDefault.getByName(PluginConfig.scriptOptionPermissionDefault());
@@ -61,6 +68,9 @@ public class ScriptOptions {
             this.enabled = ScriptOptionsConfig.getEnabled(scriptName, PluginConfig.scriptOptionEnabled());
             this.loadPriority = ScriptOptionsConfig.getLoadPriority(scriptName, PluginConfig.scriptOptionLoadPriority());
             this.pluginDepend = ScriptOptionsConfig.getPluginDepend(scriptName, PluginConfig.scriptOptionPluginDepend());
+            this.scriptDepend = ScriptOptionsConfig.getScriptDepend(scriptName, PluginConfig.scriptOptionScriptDepend());
+            this.preserveGlobals = ScriptOptionsConfig.getPreserveGlobals(scriptName, PluginConfig.scriptOptionPreserveGlobals());
+            this.asyncCpuQuota = ScriptOptionsConfig.getAsyncCpuQuota(scriptName, PluginConfig.scriptOptionAsyncCpuQuota());
             this.fileLoggingEnabled = ScriptOptionsConfig.getFileLoggingEnabled(scriptName, PluginConfig.scriptOptionFileLoggingEnabled());
             this.minLoggingLevel = Level.parse(ScriptOptionsConfig.getMinLoggingLevel(scriptName, PluginConfig.scriptOptionMinLoggingLevel()));
             this.permissionDefault = PermissionDefault.getByName(ScriptOptionsConfig.getPermissionDefault(scriptName, PluginConfig.scriptOptionPermissionDefault()));
@@ -69,6 +79,9 @@ public class ScriptOptions {
             this.enabled = PluginConfig.scriptOptionEnabled();
             this.loadPriority = PluginConfig.scriptOptionLoadPriority();
             this.pluginDepend = PluginConfig.scriptOptionPluginDepend();
+            this.scriptDepend = PluginConfig.scriptOptionScriptDepend();
+            this.preserveGlobals = PluginConfig.scriptOptionPreserveGlobals();
+            this.asyncCpuQuota = PluginConfig.scriptOptionAsyncCpuQuota();
             this.fileLoggingEnabled = PluginConfig.scriptOptionFileLoggingEnabled();
             this.minLoggingLevel = Level.parse(PluginConfig.scriptOptionMinLoggingLevel());
             this.permissionDefault = PermissionDefault.getByName(PluginConfig.scriptOptionPermissionDefault());
@@ -86,6 +99,8 @@ public class ScriptOptions {
 
     /**
      * Get the load priority for this script. Scripts with greater load priority will load before scripts with lower load priority.
+     * <p>
+     * <b>Note:</b> Scripts are first grouped into levels by their script dependencies, so that every script loads after the scripts it depends on. Load priority only orders scripts within the same level, so a script with a high load priority still loads after a script with a lower priority that is in a lower level.
      * @return The script's load priority
      */
     public int getLoadPriority() {
@@ -100,6 +115,32 @@ public class ScriptOptions {
         return pluginDepend;
     }
 
+    /**
+     * Get a list of script dependencies for this script. A script is always loaded after the scripts it depends on, and is unloaded when any of them is unloaded.
+     * @return A list of the file names of scripts this script depends on. Will return an empty list if this script has no script dependencies
+     */
+    public List<String> getScriptDependencies() {
+        return scriptDepend;
+    }
+
+    /**
+     * Get a list of global variables whose values should be handed over to the new interpreter when this script is reloaded with {@link ScriptManager#reloadScript(Script)}.
+     * <p>
+     * Functions and classes defined in the script are not handed over. Instances of classes defined in the script are, but they keep using the old class definition.
+     * @return A list of global variable names. Will return an empty list if this script has no preserved globals
+     */
+    public List<String> getPreservedGlobals() {
+        return preserveGlobals;
+    }
+
+    /**
+     * Get the CPU time this script's asynchronous tasks may use per second. Once the quota is used up, further async task runs are deferred until the quota resets.
+     * @return The quota, in milliseconds of CPU time per second. A value of 0 means there is no limit
+     */
+    public long getAsyncCpuQuota() {
+        return asyncCpuQuota;
+    }
+
     /**
      * Get if file logging is enabled for this script.
      * @return True if file logging is enabled, false if otherwise
@@ -138,7 +179,35 @@ public class ScriptOptions {
      */
     @Override
     public String toString() {
-        return String.format("ScriptOptions[Enabled: %b, Load Priority: %d, Plugin Dependencies: %s, File Logging Enabled: %b, Minimum Logging Level: %s, Permission Default: %s, Permissions: %s", enabled, loadPriority, pluginDepend, fileLoggingEnabled, minLoggingLevel, permissionDefault, printPermissions());
+        return String.format("ScriptOptions[Enabled: %b, Load Priority: %d, Plugin Dependencies: %s, Script Dependencies: %s, Preserved Globals: %s, Async CPU Quota: %d, File Logging Enabled: %b, Minimum Logging Level: %s, Permission Default: %s, Permissions: %s", enabled, loadPriority, pluginDepend, scriptDepend, preserveGlobals, asyncCpuQuota, fileLoggingEnabled, minLoggingLevel, permissionDefault, printPermissions());
+    }
+
+    /**
+     * Check if this ScriptOptions is equal to another object. Two ScriptOptions are equal if all of their options are equal.
+     * @param other The object to compare to
+     * @return True if the other object is a ScriptOptions with the same options, false if otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof ScriptOptions options))
+            return false;
+        return enabled == options.enabled
+                && loadPriority == options.loadPriority
+                && pluginDepend.equals(options.pluginDepend)
+                && scriptDepend.equals(options.scriptDepend)
+                && preserveGlobals.equals(options.preserveGlobals)
+                && asyncCpuQuota == options.asyncCpuQuota
+                && fileLoggingEnabled == options.fileLoggingEnabled
+                && minLoggingLevel.equals(options.minLoggingLevel)
+                && permissionDefault == options.permissionDefault
+                && printPermissions().equals(options.printPermissions());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, loadPriority, pluginDepend, scriptDepend, preserveGlobals, asyncCpuQuota, fileLoggingEnabled, minLoggingLevel, permissionDefault);
     }
 
     private List<String> printPermissions() {
@@ -0,0 +1,165 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import dev.magicmq.pyspigot.util.ScriptUtils;
+import org.python.Version;
+import org.python.core.PyException;
+import org.python.core.PySystemState;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * A standalone tool that compiles every script in a scripts folder (including subfolders) ahead of time and packages the compiled classes into a jar, which can be loaded by PySpigot instead of the script files (see the precompiled-scripts option in config.yml).
+ * <p>
+ * The packager does not need a running server, and can be run from the PySpigot jar:
+ * <pre>
+ * java -cp PySpigot.jar dev.magicmq.pyspigot.manager.script.ScriptPackager &lt;scripts folder&gt; &lt;output jar&gt;
+ * </pre>
+ * Scripts are compiled exactly as they would be by the {@link ScriptCache}. The Jython version used to compile the scripts is recorded in the jar, and PySpigot will refuse to load a jar that was compiled with a different Jython version.
+ */
+public class ScriptPackager {
+
+    /**
+     * The manifest attribute containing the Jython version the scripts were compiled with.
+     */
+    public static final String JYTHON_VERSION = "Jython-Version";
+
+    /**
+     * The per-entry manifest attribute containing the name of the compiled class.
+     */
+    public static final String CLASS_NAME = "Class-Name";
+
+    /**
+     * The per-entry manifest attribute containing the hash of the script's source.
+     */
+    public static final String SOURCE_HASH = "Source-Hash";
+
+    /**
+     * The file extension of compiled script entries in the jar.
+     */
+    public static final String ENTRY_EXTENSION = ".class";
+
+    private ScriptPackager() {}
+
+    /**
+     * Compile all scripts in a scripts folder and write them to a jar.
+     * @param args The path of the scripts folder, followed by the path of the jar to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java -cp PySpigot.jar " + ScriptPackager.class.getName() + " <scripts folder> <output jar>");
+            System.exit(2);
+        }
+
+        Path scriptsFolder = Paths.get(args[0]).toAbsolutePath();
+        Path output = Paths.get(args[1]).toAbsolutePath();
+        if (!Files.isDirectory(scriptsFolder)) {
+            System.err.println("Scripts folder '" + scriptsFolder + "' does not exist");
+            System.exit(2);
+        }
+
+        PySystemState.initialize();
+
+        try {
+            int packaged = packageScripts(scriptsFolder, output);
+            System.out.println("Packaged " + packaged + " script(s) into '" + output + "'");
+        } catch (IOException e) {
+            System.err.println("Error when packaging scripts: " + e);
+            System.exit(1);
+        } catch (PyException e) {
+            System.err.println("Error when compiling scripts: " + e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compile all scripts in a scripts folder and write them to a jar.
+     * @param scriptsFolder The scripts folder
+     * @param output The path of the jar to write
+     * @return The number of scripts that were packaged
+     * @throws IOException If there was an IOException when reading a script file or writing the jar
+     * @throws PyException If a script contains a syntax or indentation error
+     */
+    public static int packageScripts(Path scriptsFolder, Path output) throws IOException {
+        SortedSet<Path> paths = new TreeSet<>();
+        try (Stream<Path> stream = Files.walk(scriptsFolder)) {
+            Iterator<Path> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                if (Files.isRegularFile(path) && path.toString().endsWith(".py"))
+                    paths.add(path);
+            }
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue(JYTHON_VERSION, Version.PY_VERSION);
+
+        Map<String, byte[]> entries = new HashMap<>();
+        Map<String, Path> names = new HashMap<>();
+        for (Path path : paths) {
+            String fileName = path.getFileName().toString();
+            Path existing = names.putIfAbsent(fileName, path);
+            if (existing != null) {
+                System.err.println("Skipping duplicate script file name '" + fileName + "' with path '" + scriptsFolder.relativize(path) + "'. Conflicts with '" + scriptsFolder.relativize(existing) + "'.");
+                continue;
+            }
+
+            byte[] source = Files.readAllBytes(path);
+            String className = ScriptCache.getClassName(ScriptCache.getKey(fileName, source));
+            String entryName = scriptsFolder.relativize(path).toString().replace('\\', '/') + ENTRY_EXTENSION;
+
+            entries.put(entryName, ScriptCache.compile(className, fileName, source));
+
+            Attributes attributes = new Attributes();
+            attributes.putValue(CLASS_NAME, className);
+            attributes.putValue(SOURCE_HASH, ScriptUtils.hashSource(source));
+            manifest.getEntries().put(entryName, attributes);
+        }
+
+        Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), output.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp); JarOutputStream jar = new JarOutputStream(out, manifest)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                jar.putNextEntry(new JarEntry(entry.getKey()));
+                jar.write(entry.getValue());
+                jar.closeEntry();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+
+        return entries.size();
+    }
+}
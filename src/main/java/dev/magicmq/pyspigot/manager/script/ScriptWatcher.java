@@ -0,0 +1,202 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.util.ScriptUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Watches the scripts folder (including subfolders) for changes and reloads loaded scripts whose file contents have changed.
+ * <p>
+ * File system events are collected on a separate thread. Once no further events have been received for a script file within the debounce period, the file is hashed on the main thread and compared to the hash of the source the script was loaded from. Only scripts whose contents actually changed are reloaded, and a loaded script whose file was deleted is unloaded. All other scripts are left untouched.
+ */
+public class ScriptWatcher {
+
+    private final Path scriptsFolder;
+    private final ScriptIndex scriptIndex;
+    private final long debounce;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedFolders;
+    private final Map<Path, Long> pendingChanges;
+    private final AtomicBoolean overflowed;
+
+    private BukkitTask reloadTask;
+
+    /**
+     *
+     * @param scriptsFolder The scripts folder to watch
+     * @param scriptIndex The script index, which will be updated when script files or folders are created or deleted
+     * @param debounce The time, in milliseconds, to wait after the last change to a file before handling it
+     * @throws IOException If the watch service could not be created
+     */
+    protected ScriptWatcher(Path scriptsFolder, ScriptIndex scriptIndex, long debounce) throws IOException {
+        this.scriptsFolder = scriptsFolder;
+        this.scriptIndex = scriptIndex;
+        this.debounce = debounce;
+        this.watchService = scriptsFolder.getFileSystem().newWatchService();
+        this.watchedFolders = new ConcurrentHashMap<>();
+        this.pendingChanges = new ConcurrentHashMap<>();
+        this.overflowed = new AtomicBoolean();
+    }
+
+    /**
+     * Begin watching the scripts folder.
+     * @throws IOException If the scripts folder could not be registered with the watch service
+     */
+    public void start() throws IOException {
+        registerAll(scriptsFolder);
+
+        Thread watchThread = new Thread(this::watch, "PySpigot Script Watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        reloadTask = Bukkit.getScheduler().runTaskTimer(PySpigot.get(), this::handlePendingChanges, 5L, 5L);
+
+        scriptIndex.setWatched(true);
+    }
+
+    /**
+     * Stop watching the scripts folder. Pending changes that have not been handled yet are discarded.
+     */
+    public void shutdown() {
+        scriptIndex.setWatched(false);
+
+        if (reloadTask != null)
+            reloadTask.cancel();
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            PySpigot.get().getLogger().log(Level.SEVERE, "Error when closing the script watcher", e);
+        }
+
+        pendingChanges.clear();
+    }
+
+    private void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path folder = watchedFolders.get(key);
+            if (folder != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflowed.set(true);
+                        scriptIndex.invalidate();
+                        continue;
+                    }
+
+                    Path path = folder.resolve((Path) event.context());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE)
+                        scriptIndex.created(path);
+                    else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE)
+                        scriptIndex.deleted(path);
+
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                        try {
+                            registerAll(path);
+                        } catch (IOException e) {
+                            PySpigot.get().getLogger().log(Level.SEVERE, "Error when watching new folder '" + PySpigot.get().getDataFolderPath().relativize(path) + "'", e);
+                        }
+                    } else if (path.toString().endsWith(".py")) {
+                        pendingChanges.put(path, System.currentTimeMillis());
+                    }
+                }
+            }
+
+            if (!key.reset())
+                watchedFolders.remove(key);
+        }
+    }
+
+    private void handlePendingChanges() {
+        long now = System.currentTimeMillis();
+
+        //Events were lost, so check every loaded script
+        if (overflowed.getAndSet(false)) {
+            for (Script script : ScriptManager.get().getLoadedScripts()) {
+                pendingChanges.put(script.getPath(), now);
+            }
+        }
+
+        Iterator<Map.Entry<Path, Long>> iterator = pendingChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            if (now - entry.getValue() >= debounce) {
+                iterator.remove();
+                handleChange(entry.getKey());
+            }
+        }
+    }
+
+    private void handleChange(Path path) {
+        ScriptManager scriptManager = ScriptManager.get();
+        Script script = scriptManager.getScript(path.getFileName().toString());
+        if (script == null || !script.getPath().equals(path))
+            return;
+
+        if (!Files.exists(path)) {
+            PySpigot.get().getLogger().log(Level.INFO, "Script file for '" + script.getName() + "' was deleted, unloading it");
+            scriptManager.unloadScript(script, false);
+            return;
+        }
+
+        try {
+            String hash = ScriptUtils.hashSource(Files.readAllBytes(path));
+            if (hash.equals(script.getSourceHash()))
+                return;
+
+            PySpigot.get().getLogger().log(Level.INFO, "Detected a change in script '" + script.getName() + "', reloading it");
+            scriptManager.reloadScript(script);
+        } catch (IOException e) {
+            PySpigot.get().getLogger().log(Level.SEVERE, "Error when reloading script '" + script.getName() + "'", e);
+        }
+    }
+
+    private void registerAll(Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            Iterator<Path> iterator = stream.filter(Files::isDirectory).iterator();
+            while (iterator.hasNext()) {
+                Path folder = iterator.next();
+                WatchKey key = folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedFolders.put(key, folder);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.config.PluginConfig;
+import dev.magicmq.pyspigot.manager.profile.MemoryEstimator;
+import dev.magicmq.pyspigot.util.ScriptUtils;
+import org.python.core.Py;
+import org.python.core.PyException;
+import org.python.core.PyObject;
+import org.python.core.PyString;
+import org.python.core.PySystemState;
+import org.python.util.PythonInterpreter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * A cache of library modules that are imported once and shared by all script interpreters, instead of being imported separately into each script's system state.
+ * <p>
+ * Only modules listed in the shared-modules section of the config are shared (along with their submodules). Each listed module is imported the first time a system state is handed out to a script, in a separate interpreter owned by this cache, and the resulting module objects are placed into the sys.modules of every script's system state. Because every script sees the same module objects, this should only be used for modules that do not keep per-script state.
+ * <p>
+ * The memory saved is estimated from the retained size of each shared module's objects (measured once with {@link MemoryEstimator}, excluding the system state and any modules that are not part of the shared module), multiplied by the number of times the import was avoided.
+ */
+public class SharedModuleCache {
+
+    private static final long ESTIMATE_TIME_LIMIT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Map<String, SharedModule> modules;
+    private final Set<String> failed;
+
+    private PythonInterpreter interpreter;
+
+    protected SharedModuleCache() {
+        this.modules = new HashMap<>();
+        this.failed = new HashSet<>();
+    }
+
+    /**
+     * Place all shared modules into a system state's sys.modules, importing them first if they have not been imported yet.
+     * @param sys The system state to install shared modules into
+     */
+    public synchronized void install(PySystemState sys) {
+        List<String> names = PluginConfig.getSharedModules();
+        if (names.isEmpty())
+            return;
+
+        for (String name : names) {
+            SharedModule module = modules.get(name);
+            if (module == null) {
+                if (failed.contains(name))
+                    continue;
+
+                module = importModule(name);
+                if (module == null) {
+                    failed.add(name);
+                    continue;
+                }
+                modules.put(name, module);
+            }
+
+            //A reused interpreter already has the module installed, so don't count it again
+            boolean installed = false;
+            for (Map.Entry<String, PyObject> entry : module.modules.entrySet()) {
+                if (sys.modules.__finditem__(entry.getKey()) != entry.getValue()) {
+                    sys.modules.__setitem__(entry.getKey(), entry.getValue());
+                    installed = true;
+                }
+            }
+            if (installed)
+                module.installs++;
+        }
+    }
+
+    /**
+     * Discard all shared modules, so that they are imported again the next time they are needed. Called when all scripts are reloaded, so that changes to library modules are picked up.
+     */
+    public synchronized void clear() {
+        modules.clear();
+        failed.clear();
+
+        if (interpreter != null) {
+            interpreter.close();
+            interpreter = null;
+        }
+    }
+
+    /**
+     * Get all module objects (including submodules) currently shared.
+     * @return A list of the shared module objects
+     */
+    public synchronized List<PyObject> getModules() {
+        List<PyObject> toReturn = new ArrayList<>();
+        for (SharedModule module : modules.values()) {
+            toReturn.addAll(module.modules.values());
+        }
+        return toReturn;
+    }
+
+    /**
+     * Get the number of modules (including submodules) currently shared.
+     * @return The number of shared modules
+     */
+    public synchronized int getModuleCount() {
+        int count = 0;
+        for (SharedModule module : modules.values()) {
+            count += module.modules.size();
+        }
+        return count;
+    }
+
+    /**
+     * Get an estimate of the memory saved by sharing modules instead of importing them into each script's system state.
+     * <p>
+     * The retained size of each module is measured the first time this is called after the module is imported. If the measurement of a module hits its time limit, the estimate is lower than the actual size.
+     * @return The estimated number of bytes saved
+     */
+    public synchronized long getBytesSaved() {
+        long saved = 0;
+        for (SharedModule module : modules.values()) {
+            if (module.retainedBytes < 0)
+                module.retainedBytes = estimateRetainedBytes(module);
+            saved += module.retainedBytes * module.installs;
+        }
+        return saved;
+    }
+
+    private SharedModule importModule(String name) {
+        if (interpreter == null)
+            interpreter = new PythonInterpreter(null, ScriptUtils.initPySystemState());
+
+        try {
+            interpreter.exec("import " + name);
+        } catch (PyException e) {
+            PySpigot.get().getLogger().log(Level.SEVERE, "Error when importing shared module '" + name + "', scripts will import it separately", e);
+            return null;
+        }
+        SharedModule module = new SharedModule();
+        PyObject sysModules = interpreter.getSystemState().modules;
+        for (PyObject key : sysModules.asIterable()) {
+            String moduleName = key.toString();
+            if (moduleName.equals(name) || moduleName.startsWith(name + ".")) {
+                PyObject value = sysModules.__finditem__(new PyString(moduleName));
+                if (value != null && value != Py.None)
+                    module.modules.put(moduleName, value);
+            }
+        }
+        return module;
+    }
+
+    private long estimateRetainedBytes(SharedModule module) {
+        Set<PyObject> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        shared.addAll(module.modules.values());
+
+        PySystemState sys = interpreter.getSystemState();
+        List<Object> excluded = new ArrayList<>();
+        excluded.add(sys);
+        excluded.add(sys.modules);
+        excluded.add(sys.getBuiltins());
+        //Modules the shared module merely references (such as sys or other libraries) are imported by scripts anyway, so they aren't part of what is saved
+        for (PyObject key : sys.modules.asIterable()) {
+            PyObject value = sys.modules.__finditem__(key);
+            if (value != null && !shared.contains(value))
+                excluded.add(value);
+        }
+
+        return MemoryEstimator.estimate(module.modules.values(), excluded, ESTIMATE_TIME_LIMIT).getBytes();
+    }
+
+    private static class SharedModule {
+
+        private final Map<String, PyObject> modules;
+
+        private long retainedBytes;
+        private int installs;
+
+        private SharedModule() {
+            this.modules = new HashMap<>();
+            this.retainedBytes = -1;
+        }
+    }
+}
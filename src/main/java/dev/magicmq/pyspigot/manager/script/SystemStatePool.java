@@ -0,0 +1,129 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.util.ScriptUtils;
+import org.python.core.PySystemState;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * A pool of pre-built, unused {@link org.python.core.PySystemState} objects for script interpreters.
+ * <p>
+ * Building a new PySystemState is expensive, so the pool is filled on a background thread and refilled every time a system state is taken. If the pool is empty when a script is loaded (or the pool size is 0), a new system state is built on the calling thread instead.
+ * @see ScriptUtils#initPySystemState()
+ */
+public class SystemStatePool {
+
+    private final int size;
+    private final LinkedBlockingQueue<PySystemState> pool;
+    private final AtomicInteger pending;
+    private final ExecutorService filler;
+
+    private boolean closed;
+
+    /**
+     *
+     * @param size The number of system states to keep ready in the pool
+     */
+    protected SystemStatePool(int size) {
+        this.size = Math.max(0, size);
+        this.pool = new LinkedBlockingQueue<>();
+        this.pending = new AtomicInteger();
+        this.filler = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PySpigot System State Pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        refill();
+    }
+
+    /**
+     * Take a system state from the pool, building a new one if the pool is empty. The pool will be refilled in the background, unless it was shut down.
+     * @return A system state that has not been used by any other interpreter
+     */
+    public PySystemState take() {
+        PySystemState sys = pool.poll();
+        refill();
+        if (sys == null)
+            sys = ScriptUtils.initPySystemState();
+        return sys;
+    }
+
+    /**
+     * Get the number of system states that are currently ready in the pool.
+     * @return The number of pooled system states
+     */
+    public int getAvailable() {
+        return pool.size();
+    }
+
+    /**
+     * Stop refilling the pool and close all system states that are still pooled.
+     */
+    public void shutdown() {
+        synchronized (pool) {
+            closed = true;
+        }
+
+        filler.shutdownNow();
+
+        PySystemState sys;
+        while ((sys = pool.poll()) != null) {
+            sys.close();
+        }
+    }
+
+    private void refill() {
+        synchronized (pool) {
+            while (!closed && pool.size() + pending.get() < size) {
+                pending.incrementAndGet();
+                try {
+                    filler.execute(this::fill);
+                } catch (RejectedExecutionException e) {
+                    pending.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fill() {
+        try {
+            PySystemState sys = ScriptUtils.initPySystemState();
+            synchronized (pool) {
+                //The pool was shut down while this system state was being built
+                if (closed) {
+                    sys.close();
+                    return;
+                }
+                pool.add(sys);
+            }
+        } catch (Throwable throwable) {
+            PySpigot.get().getLogger().log(Level.SEVERE, "Error when building a system state for the system state pool", throwable);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.task;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Limits the CPU time a script's asynchronous tasks may use, measured per thread with {@link java.lang.management.ThreadMXBean}.
+ * <p>
+ * CPU time is counted in windows of one second. Once a script's async tasks have used up the quota for the current window, further async task runs are deferred until the next window begins. One-off tasks are rescheduled to run later, and runs of repeating tasks are skipped until the quota resets.
+ */
+public class AsyncCpuQuota {
+
+    private static final long WINDOW = 1000000000L;
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final long quotaNanos;
+
+    private long windowStart;
+    private long used;
+    private long lastWindowUsed;
+    private long deferred;
+
+    /**
+     *
+     * @param quotaMillis The CPU time, in milliseconds, the script's async tasks may use per second
+     */
+    protected AsyncCpuQuota(long quotaMillis) {
+        this.quotaNanos = quotaMillis * 1000000L;
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Check if the quota has been used up for the current window.
+     * @return True if async tasks should be deferred, false if otherwise
+     */
+    public synchronized boolean isExceeded() {
+        roll();
+        return used >= quotaNanos;
+    }
+
+    /**
+     * Record CPU time used by an async task.
+     * @param cpuNanos The CPU time used, in nanoseconds
+     */
+    public synchronized void record(long cpuNanos) {
+        roll();
+        used += cpuNanos;
+    }
+
+    /**
+     * Get the number of ticks until the current window ends and the quota resets.
+     * @return The number of ticks, at least 1
+     */
+    public synchronized long getTicksUntilReset() {
+        long remaining = WINDOW - (System.nanoTime() - windowStart);
+        return Math.max(1L, (remaining + 49999999L) / 50000000L);
+    }
+
+    /**
+     * Get the CPU time the script's async tasks may use per second.
+     * @return The quota, in milliseconds
+     */
+    public long getQuotaMillis() {
+        return quotaNanos / 1000000L;
+    }
+
+    /**
+     * Get the CPU time used by the script's async tasks in the last full window.
+     * @return The CPU time used, in nanoseconds
+     */
+    public synchronized long getLastWindowNanos() {
+        roll();
+        return lastWindowUsed;
+    }
+
+    /**
+     * Get the number of async task runs that were deferred because the quota was used up.
+     * @return The number of deferred runs
+     */
+    public synchronized long getDeferred() {
+        return deferred;
+    }
+
+    protected synchronized void incrementDeferred() {
+        deferred++;
+    }
+
+    /**
+     * Prints a representation of this AsyncCpuQuota in string format, including the CPU time used in the last second and the number of deferred task runs.
+     * @return A string representation of the AsyncCpuQuota
+     */
+    @Override
+    public String toString() {
+        return String.format("%.1fms of %dms per second used, %d run(s) deferred", getLastWindowNanos() / 1000000D, getQuotaMillis(), getDeferred());
+    }
+
+    private void roll() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed >= WINDOW) {
+            //If more than one window has passed, nothing was used in the last full window
+            lastWindowUsed = elapsed < WINDOW * 2 ? used : 0;
+            //Carry over CPU time beyond the quota, so a single long task run is paid for in later windows
+            used = Math.max(0, used - quotaNanos * (elapsed / WINDOW));
+            windowStart = now - (elapsed % WINDOW);
+        }
+    }
+
+    /**
+     * Check if the JVM supports measuring CPU time per thread. If it does, measurement is enabled if it was not already.
+     * @return True if CPU time can be measured, false if otherwise
+     */
+    public static boolean isSupported() {
+        if (!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported())
+            return false;
+
+        if (!THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+            try {
+                THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+            } catch (UnsupportedOperationException | SecurityException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the CPU time used by the current thread.
+     * @return The CPU time used by the current thread, in nanoseconds
+     */
+    public static long getCurrentThreadCpuTime() {
+        return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+}
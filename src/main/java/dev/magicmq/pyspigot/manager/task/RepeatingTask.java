@@ -16,6 +16,8 @@
 
 package dev.magicmq.pyspigot.manager.task;
 
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.python.core.Py;
@@ -49,6 +51,14 @@ public class RepeatingTask extends Task {
      */
     @Override
     public void run() {
+        //Skip this run if the script's async CPU quota was used up, the task will run again next interval
+        if (cpuQuota != null && cpuQuota.isExceeded()) {
+            cpuQuota.incrementDeferred();
+            return;
+        }
+
+        long cpuStart = cpuQuota != null ? AsyncCpuQuota.getCurrentThreadCpuTime() : 0L;
+        long start = ProfileManager.get().begin(script, CallType.TASK);
         try {
             if (functionArgs != null) {
                 PyObject[] pyObjects = Py.javas2pys(functionArgs);
@@ -58,6 +68,10 @@ public class RepeatingTask extends Task {
             }
         } catch (PyException e) {
             ScriptManager.get().handleScriptException(script, e, "Error when executing task #" + getTaskId());
+        } finally {
+            ProfileManager.get().end(script, CallType.TASK, start);
+            if (cpuQuota != null)
+                cpuQuota.record(AsyncCpuQuota.getCurrentThreadCpuTime() - cpuStart);
         }
     }
 
@@ -17,6 +17,8 @@
 package dev.magicmq.pyspigot.manager.task;
 
 import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.bukkit.scheduler.BukkitRunnable;
@@ -50,13 +52,26 @@ public class SyncCallbackTask extends Task {
      */
     @Override
     public void run() {
+        if (cpuQuota != null && cpuQuota.isExceeded()) {
+            defer();
+            return;
+        }
+
         try {
             PyObject outcome;
-            if (functionArgs != null) {
-                PyObject[] pyObjects = Py.javas2pys(functionArgs);
-                outcome = function.__call__(pyObjects);
-            } else {
-                outcome = function.__call__();
+            long cpuStart = cpuQuota != null ? AsyncCpuQuota.getCurrentThreadCpuTime() : 0L;
+            long start = ProfileManager.get().begin(script, CallType.TASK);
+            try {
+                if (functionArgs != null) {
+                    PyObject[] pyObjects = Py.javas2pys(functionArgs);
+                    outcome = function.__call__(pyObjects);
+                } else {
+                    outcome = function.__call__();
+                }
+            } finally {
+                ProfileManager.get().end(script, CallType.TASK, start);
+                if (cpuQuota != null)
+                    cpuQuota.record(AsyncCpuQuota.getCurrentThreadCpuTime() - cpuStart);
             }
 
             callback = new Callback(this, outcome);
@@ -111,6 +126,7 @@ public class SyncCallbackTask extends Task {
          */
         @Override
         public void run() {
+            long start = ProfileManager.get().begin(task.script, CallType.TASK);
             try {
                 if (outcome instanceof PyNone)
                     task.callbackFunction.__call__();
@@ -119,6 +135,7 @@ public class SyncCallbackTask extends Task {
             } catch (PyException e) {
                 ScriptManager.get().handleScriptException(task.script, e, "Error when executing task #" + getTaskId());
             } finally {
+                ProfileManager.get().end(task.script, CallType.TASK, start);
                 synchronized (task) {
                     task.notify();
                 }
@@ -16,9 +16,14 @@
 
 package dev.magicmq.pyspigot.manager.task;
 
+import dev.magicmq.pyspigot.PySpigot;
+import dev.magicmq.pyspigot.manager.profile.CallType;
+import dev.magicmq.pyspigot.manager.profile.ProfileManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 import org.python.core.*;
 
 import java.util.Arrays;
@@ -33,6 +38,9 @@ public class Task extends BukkitRunnable {
     protected final Object[] functionArgs;
     protected final boolean async;
     protected final long delay;
+    protected final AsyncCpuQuota cpuQuota;
+
+    private volatile BukkitTask deferredTask;
 
     /**
      *
@@ -56,6 +64,7 @@ public class Task extends BukkitRunnable {
 
         this.async = async;
         this.delay = delay;
+        this.cpuQuota = async ? TaskManager.get().getCpuQuota(script) : null;
     }
 
     /**
@@ -63,6 +72,13 @@ public class Task extends BukkitRunnable {
      */
     @Override
     public void run() {
+        if (cpuQuota != null && cpuQuota.isExceeded()) {
+            defer();
+            return;
+        }
+
+        long cpuStart = cpuQuota != null ? AsyncCpuQuota.getCurrentThreadCpuTime() : 0L;
+        long start = ProfileManager.get().begin(script, CallType.TASK);
         try {
             if (functionArgs != null) {
                 PyObject[] pyObjects = Py.javas2pys(functionArgs);
@@ -73,10 +89,35 @@ public class Task extends BukkitRunnable {
         } catch (PyException e) {
             ScriptManager.get().handleScriptException(script, e, "Error when executing task #" + getTaskId());
         } finally {
+            ProfileManager.get().end(script, CallType.TASK, start);
+            if (cpuQuota != null)
+                cpuQuota.record(AsyncCpuQuota.getCurrentThreadCpuTime() - cpuStart);
             TaskManager.get().taskFinished(this);
         }
     }
 
+    /**
+     * Cancel this task, including a deferred run of this task if its script's async CPU quota was used up.
+     */
+    @Override
+    public synchronized void cancel() {
+        super.cancel();
+        if (deferredTask != null)
+            deferredTask.cancel();
+    }
+
+    /**
+     * Run this task again once its script's async CPU quota resets. Called when the task was about to run, but the quota was used up.
+     */
+    protected synchronized void defer() {
+        //The task may have been cancelled while it was about to run, in which case cancel() won't see this deferred run
+        if (isCancelled())
+            return;
+
+        cpuQuota.incrementDeferred();
+        deferredTask = Bukkit.getScheduler().runTaskLaterAsynchronously(PySpigot.get(), this::run, cpuQuota.getTicksUntilReset());
+    }
+
     /**
      * Get the script associated with this task.
      * @return The script associated with this task
@@ -18,6 +18,7 @@ package dev.magicmq.pyspigot.manager.task;
 
 import dev.magicmq.pyspigot.PySpigot;
 import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptOptions;
 import dev.magicmq.pyspigot.util.ScriptUtils;
 import org.python.core.PyFunction;
 
@@ -33,9 +34,11 @@ public class TaskManager {
     private static TaskManager manager;
 
     private final HashMap<Script, List<Task>> activeTasks;
+    private final HashMap<Script, AsyncCpuQuota> cpuQuotas;
 
     private TaskManager() {
         activeTasks = new HashMap<>();
+        cpuQuotas = new HashMap<>();
     }
 
     /**
@@ -205,6 +208,7 @@ public class TaskManager {
             }
             activeTasks.remove(script);
         }
+        cpuQuotas.remove(script);
     }
 
     /**
@@ -235,6 +239,20 @@ public class TaskManager {
             return null;
     }
 
+    /**
+     * Get the async CPU quota for a script, which limits the CPU time its asynchronous tasks may use.
+     * @param script The script whose quota should be retrieved
+     * @return The script's quota, or null if the script has no quota or if the JVM does not support measuring CPU time per thread
+     * @see ScriptOptions#getAsyncCpuQuota()
+     */
+    public synchronized AsyncCpuQuota getCpuQuota(Script script) {
+        long quotaMillis = script.getOptions().getAsyncCpuQuota();
+        if (quotaMillis <= 0 || !AsyncCpuQuota.isSupported())
+            return null;
+
+        return cpuQuotas.computeIfAbsent(script, key -> new AsyncCpuQuota(quotaMillis));
+    }
+
     protected synchronized void taskFinished(Task task) {
         removeTask(task);
     }
@@ -18,10 +18,17 @@ package dev.magicmq.pyspigot.util;
 
 import dev.magicmq.pyspigot.manager.libraries.LibraryManager;
 import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptContext;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.python.core.PyString;
 import org.python.core.PySystemState;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -38,10 +45,18 @@ public final class ScriptUtils {
     private ScriptUtils() {}
 
     /**
-     * Attempts to get the script involved in a Java method call by analyzing the call stack.
-     * @return The script associated with the method call, or null if no script was found in the call stack
+     * Attempts to get the script involved in a Java method call.
+     * <p>
+     * The script bound to the current thread by {@link ScriptContext} is returned if there is one, which is the case whenever the call originates from script code that PySpigot called into. Otherwise (for example, on a thread started by a script), the call stack is analyzed instead, which is considerably slower.
+     * <p>
+     * <b>Note:</b> When a script is bound to the current thread, it is returned even if the running code was defined by another script. For example, if script A calls a function defined by script B, calls made by that function are attributed to script A. The call stack, on the other hand, attributes calls to the script that defines the running code.
+     * @return The script associated with the method call, or null if no script was found
      */
     public static Script getScriptFromCallStack() {
+        Script current = ScriptContext.getCurrent();
+        if (current != null)
+            return current;
+
         Optional<StackWalker.StackFrame> callingScript = STACK_WALKER.walk(stream -> stream.filter(frame -> frame.getClassName().contains("org.python.pycode") && frame.getMethodName().equals("call_function")).findFirst());
         if (callingScript.isPresent()) {
             String scriptName = callingScript.get().getFileName();
@@ -51,6 +66,60 @@ public final class ScriptUtils {
         }
     }
 
+    /**
+     * Get all threads that are currently running code from a script with the given name.
+     * <p>
+     * A thread is considered to be running a script's code if any frame in its stack belongs to a Python function compiled from a file with the script's name. This includes threads started by the script that are waiting or sleeping inside Java code called by the script.
+     * @param name The name of the script, including its extension (.py)
+     * @return A list of threads running code from the script, or an empty list if there are none
+     */
+    public static List<Thread> getScriptThreads(String name) {
+        List<Thread> threads = new ArrayList<>();
+        for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+            for (StackTraceElement element : entry.getValue()) {
+                if (element.getClassName().contains("org.python.pycode") && name.equals(element.getFileName())) {
+                    threads.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return threads;
+    }
+
+    /**
+     * Get a readable name for a stack frame of script code, in the format "function (script.py:line)".
+     * <p>
+     * Jython compiles each script to a class in the org.python.pycode package, with one method per Python function, named after the function and suffixed with "$" and an index. Module-level code is compiled to a method named "f$0".
+     * @param element The stack frame
+     * @return The name of the frame, or null if the frame does not belong to a Python function
+     */
+    public static String getPythonFrameName(StackTraceElement element) {
+        if (!element.getClassName().contains("org.python.pycode"))
+            return null;
+
+        String methodName = element.getMethodName();
+        int index = methodName.lastIndexOf('$');
+        if (index <= 0)
+            return null;
+
+        String function = methodName.equals("f$0") ? "<module>" : methodName.substring(0, index);
+        return function + " (" + element.getFileName() + ":" + element.getLineNumber() + ")";
+    }
+
+    /**
+     * Computes a hash of a script's source, used to detect if a script file has changed.
+     * @param source The contents of the script file
+     * @return A hex-encoded SHA-256 hash of the source
+     */
+    public static String hashSource(byte[] source) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(source));
+        } catch (NoSuchAlgorithmException e) {
+            //This should not happen, every JVM is required to support SHA-256
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
     /**
      * Initializes a new PySystemState for a new {@link org.python.util.PythonInterpreter} when a script is loaded.
      * <p>
@@ -0,0 +1,83 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.benchmark;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptContext;
+import dev.magicmq.pyspigot.util.ScriptUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving the calling script through {@link ScriptContext} with the call stack walk that {@link ScriptUtils#getScriptFromCallStack()} falls back to.
+ * <p>
+ * Both benchmarks call {@link ScriptUtils#getScriptFromCallStack()} from the given stack depth. In the stack walk benchmark no script is bound to the thread and no script frame is found, so the whole stack is walked, as it is when a script calls into PySpigot from deep in its own code.
+ * <p>
+ * Run with <code>mvn test-compile</code>, then <code>java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main ScriptContextBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptContextBenchmark {
+
+    @Param({"20", "80"})
+    public int depth;
+
+    private Script script;
+
+    @Setup
+    public void setup() {
+        script = new Script(Path.of("benchmark.py"), "benchmark.py", null);
+    }
+
+    @Benchmark
+    public Script threadBound() {
+        ScriptContext.enter(script);
+        try {
+            return callAtDepth(depth);
+        } finally {
+            ScriptContext.exit();
+        }
+    }
+
+    @Benchmark
+    public Script stackWalk() {
+        return callAtDepth(depth);
+    }
+
+    private static Script callAtDepth(int remaining) {
+        if (remaining == 0)
+            return ScriptUtils.getScriptFromCallStack();
+        else
+            return callAtDepth(remaining - 1);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.benchmark;
+
+import dev.magicmq.pyspigot.manager.listener.ScriptEventExecutor;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.python.core.JyAttribute;
+import org.python.core.Py;
+import org.python.core.PyJavaType;
+import org.python.core.PyObject;
+import org.python.core.PyObjectDerived;
+import org.python.core.PyType;
+import org.python.util.PythonInterpreter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways {@link ScriptEventExecutor} can pass an event to a script's listener function.
+ * <p>
+ * The java2py benchmark is the general path, with the type check through {@link Class#isAssignableFrom(Class)} and the event wrapped with {@link Py#java2py(Object)}. The wrapJavaObject benchmark checks the exact class and wraps the event with {@link PyJavaType#wrapJavaObject(Object)}, which looks up the event's proxy type on every call. The cachedType benchmark checks the exact class and wraps the event with a proxy type that was looked up once, as the executor does. Each benchmark calls a Python listener function that reads an attribute of the event.
+ * <p>
+ * Run with <code>mvn test-compile</code>, then <code>java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main ScriptEventExecutorBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptEventExecutorBenchmark {
+
+    private PythonInterpreter interpreter;
+    private PyObject function;
+    private Class<? extends Event> eventClass;
+    private PyType eventType;
+    private Event event;
+
+    @Setup
+    public void setup() {
+        interpreter = new PythonInterpreter();
+        interpreter.exec("def listener(event):\n    return event.eventName");
+        function = interpreter.get("listener");
+
+        eventClass = BenchmarkEvent.class;
+        eventType = PyType.fromClass(eventClass);
+        event = new BenchmarkEvent();
+    }
+
+    @TearDown
+    public void tearDown() {
+        interpreter.close();
+    }
+
+    @Benchmark
+    public PyObject java2py() {
+        if (!eventClass.isAssignableFrom(event.getClass()))
+            return null;
+        return function.__call__(Py.java2py(event));
+    }
+
+    @Benchmark
+    public PyObject wrapJavaObject() {
+        if (event.getClass() != eventClass && !eventClass.isAssignableFrom(event.getClass()))
+            return null;
+        return function.__call__(PyJavaType.wrapJavaObject(event));
+    }
+
+    @Benchmark
+    public PyObject cachedType() {
+        if (event.getClass() != eventClass && !eventClass.isAssignableFrom(event.getClass()))
+            return null;
+        PyObject wrapped = new PyObjectDerived(eventType);
+        JyAttribute.setAttr(wrapped, JyAttribute.JAVA_PROXY_ATTR, event);
+        return function.__call__(wrapped);
+    }
+
+    public static class BenchmarkEvent extends Event {
+
+        private static final HandlerList handlers = new HandlerList();
+
+        @Override
+        public HandlerList getHandlers() {
+            return handlers;
+        }
+
+        public static HandlerList getHandlerList() {
+            return handlers;
+        }
+    }
+}
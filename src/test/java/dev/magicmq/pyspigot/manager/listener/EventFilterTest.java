@@ -0,0 +1,169 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EventFilterTest {
+
+    private World world;
+    private World nether;
+    private Player player;
+    private UUID playerId;
+
+    @BeforeEach
+    public void setup() {
+        world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        nether = mock(World.class);
+        when(nether.getName()).thenReturn("world_nether");
+
+        playerId = UUID.randomUUID();
+        player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(playerId);
+        when(player.getWorld()).thenReturn(world);
+        when(player.hasPermission("pyspigot.test")).thenReturn(true);
+    }
+
+    @Test
+    public void emptyFilterPassesEverything() {
+        EventFilter filter = new EventFilter();
+
+        assertTrue(filter.test(move(0, 0, 0, 0, 0, 0)));
+        assertTrue(filter.test(new TestEvent()));
+    }
+
+    @Test
+    public void worldsMatchesEventWorld() {
+        EventFilter filter = new EventFilter().worlds("world");
+
+        assertTrue(filter.test(move(0, 0, 0, 0, 0, 0)));
+        assertFalse(filter.test(new BlockBreakEvent(block(nether, Material.STONE), player)));
+        assertTrue(new EventFilter().worlds("world", "world_nether").test(new BlockBreakEvent(block(nether, Material.STONE), player)));
+    }
+
+    @Test
+    public void worldsRejectsEventWithoutWorld() {
+        assertFalse(new EventFilter().worlds("world").test(new TestEvent()));
+    }
+
+    @Test
+    public void materialsMatchesBlockType() {
+        EventFilter filter = new EventFilter().materials(Material.STONE, Material.DIRT);
+
+        assertTrue(filter.test(new BlockBreakEvent(block(world, Material.STONE), player)));
+        assertTrue(filter.test(new BlockBreakEvent(block(world, Material.DIRT), player)));
+        assertFalse(filter.test(new BlockBreakEvent(block(world, Material.OAK_LOG), player)));
+        assertFalse(filter.test(move(0, 0, 0, 0, 0, 0)));
+    }
+
+    @Test
+    public void blockChangedIgnoresMovementWithinBlock() {
+        EventFilter filter = new EventFilter().blockChanged();
+
+        assertFalse(filter.test(move(0.1, 64, 0.1, 0.9, 64.5, 0.9)));
+        assertFalse(filter.test(move(0.5, 64, 0.5, 0.5, 64, 0.5)));
+    }
+
+    @Test
+    public void blockChangedPassesMovementAcrossBlocks() {
+        EventFilter filter = new EventFilter().blockChanged();
+
+        assertTrue(filter.test(move(0.9, 64, 0.5, 1.1, 64, 0.5)));
+        assertTrue(filter.test(move(0.5, 64, 0.5, 0.5, 65, 0.5)));
+        assertTrue(filter.test(move(0.5, 64, -0.1, 0.5, 64, 0.1)));
+        assertTrue(filter.test(new PlayerMoveEvent(player, new Location(world, 0, 64, 0), new Location(nether, 0, 64, 0))));
+        assertTrue(filter.test(new PlayerMoveEvent(player, new Location(world, 0, 64, 0), null)));
+    }
+
+    @Test
+    public void blockChangedRejectsOtherEvents() {
+        EventFilter filter = new EventFilter().blockChanged();
+
+        assertFalse(filter.test(new BlockBreakEvent(block(world, Material.STONE), player)));
+        assertFalse(filter.test(new TestEvent()));
+    }
+
+    @Test
+    public void permissionChecksEventPlayer() {
+        assertTrue(new EventFilter().permission("pyspigot.test").test(move(0, 0, 0, 0, 0, 0)));
+        assertFalse(new EventFilter().permission("pyspigot.other").test(move(0, 0, 0, 0, 0, 0)));
+        assertFalse(new EventFilter().permission("pyspigot.test").test(new TestEvent()));
+    }
+
+    @Test
+    public void playersChecksEventPlayer() {
+        assertTrue(new EventFilter().players(UUID.randomUUID(), playerId).test(move(0, 0, 0, 0, 0, 0)));
+        assertFalse(new EventFilter().players(UUID.randomUUID()).test(move(0, 0, 0, 0, 0, 0)));
+        assertTrue(new EventFilter().players(playerId).test(new BlockBreakEvent(block(world, Material.STONE), player)));
+    }
+
+    @Test
+    public void everyConditionMustPass() {
+        EventFilter filter = new EventFilter().worlds("world").blockChanged().permission("pyspigot.test");
+
+        assertTrue(filter.test(move(0, 64, 0, 1, 64, 0)));
+        assertFalse(filter.test(move(0, 64, 0, 0.5, 64, 0)));
+        assertFalse(filter.permission("pyspigot.other").test(move(0, 64, 0, 1, 64, 0)));
+    }
+
+    @Test
+    public void addingConditionDoesNotChangeFilter() {
+        EventFilter filter = new EventFilter();
+        filter.worlds("world_nether");
+
+        assertTrue(filter.test(move(0, 0, 0, 0, 0, 0)));
+    }
+
+    private PlayerMoveEvent move(double fromX, double fromY, double fromZ, double toX, double toY, double toZ) {
+        return new PlayerMoveEvent(player, new Location(world, fromX, fromY, fromZ), new Location(world, toX, toY, toZ));
+    }
+
+    private static Block block(World world, Material material) {
+        Block block = mock(Block.class);
+        when(block.getWorld()).thenReturn(world);
+        when(block.getType()).thenReturn(material);
+        return block;
+    }
+
+    private static class TestEvent extends Event {
+
+        private static final HandlerList handlers = new HandlerList();
+
+        @Override
+        public HandlerList getHandlers() {
+            return handlers;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.logging.ScriptLogger;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventGateTest {
+
+    private ScriptEventExecutor executor;
+    private ScriptLogger logger;
+    private World world;
+
+    @BeforeEach
+    public void setup() {
+        logger = mock(ScriptLogger.class);
+        Script script = mock(Script.class);
+        when(script.getLogger()).thenReturn(logger);
+
+        ScriptEventListener listener = mock(ScriptEventListener.class);
+        when(listener.getScript()).thenReturn(script);
+        doReturn(PlayerMoveEvent.class).when(listener).getEvent();
+
+        executor = mock(ScriptEventExecutor.class);
+        when(executor.getScriptEventListener()).thenReturn(listener);
+
+        world = mock(World.class);
+    }
+
+    @Test
+    public void throttlePassesAmountPerKey() {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.THROTTLE, 2, EventKey.PLAYER), executor);
+        Player first = player();
+        Player second = player();
+
+        assertTrue(gate.offer(move(first)));
+        assertTrue(gate.offer(move(first)));
+        assertFalse(gate.offer(move(first)));
+        assertTrue(gate.offer(move(second)));
+        assertTrue(gate.offer(move(second)));
+        assertFalse(gate.offer(move(second)));
+    }
+
+    @Test
+    public void throttleGroupsEventsWithoutKey() {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.THROTTLE, 1, EventKey.PLAYER), executor);
+
+        assertTrue(gate.offer(new TestEvent()));
+        assertFalse(gate.offer(new TestEvent()));
+    }
+
+    @Test
+    public void samplePassesEveryNthEvent() {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.SAMPLE, 3, null), executor);
+
+        List<Boolean> passed = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            passed.add(gate.offer(new TestEvent()));
+        }
+
+        assertEquals(List.of(true, false, false, true, false, false, true), passed);
+    }
+
+    @Test
+    public void debouncePassesLastEventOnceWindowCloses() throws InterruptedException {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.DEBOUNCE, 100, EventKey.PLAYER), executor);
+        Player player = player();
+        Event first = move(player);
+        Event last = move(player);
+
+        assertFalse(gate.offer(first));
+        assertFalse(gate.offer(last));
+        assertEquals(1, gate.getPending());
+
+        gate.flush();
+        verify(executor, never()).call(any());
+
+        Thread.sleep(150);
+        gate.flush();
+        verify(executor).call(last);
+        verify(executor, never()).call(first);
+        assertEquals(0, gate.getPending());
+    }
+
+    @Test
+    public void debounceRestartsWindowOnEachEvent() throws InterruptedException {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.DEBOUNCE, 200, EventKey.PLAYER), executor);
+        Player player = player();
+        Event first = move(player);
+        Event last = move(player);
+
+        gate.offer(first);
+        Thread.sleep(120);
+        gate.offer(last);
+        Thread.sleep(120);
+
+        //The first event's window has closed, but the second event pushed it back
+        gate.flush();
+        verify(executor, never()).call(any());
+
+        Thread.sleep(150);
+        gate.flush();
+        verify(executor).call(last);
+    }
+
+    @Test
+    public void debounceKeepsKeysSeparate() throws InterruptedException {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.DEBOUNCE, 50, EventKey.PLAYER), executor);
+        Event first = move(player());
+        Event second = move(player());
+
+        gate.offer(first);
+        gate.offer(second);
+        assertEquals(2, gate.getPending());
+
+        Thread.sleep(100);
+        gate.flush();
+        verify(executor).call(first);
+        verify(executor).call(second);
+    }
+
+    @Test
+    public void batchPassesEventsInOrder() {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.BATCH, 20, null), executor);
+        List<Event> events = List.of(new TestEvent(), new TestEvent(), new TestEvent());
+
+        for (Event event : events) {
+            assertFalse(gate.offer(event));
+        }
+        assertEquals(3, gate.getBatchSize());
+
+        gate.flushBatch();
+        verify(executor).callBatch(events);
+        assertEquals(0, gate.getBatchSize());
+    }
+
+    @Test
+    public void emptyBatchIsNotPassed() {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.BATCH, 20, null), executor);
+
+        gate.flushBatch();
+        verify(executor, never()).callBatch(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void batchDropsEventsPastLimit() {
+        EventGate gate = new EventGate(new ListenerMode(ListenerMode.Type.BATCH, 20, null), executor);
+
+        for (int i = 0; i < EventGate.MAX_BATCH_SIZE + 5; i++) {
+            gate.offer(new TestEvent());
+        }
+        assertEquals(EventGate.MAX_BATCH_SIZE, gate.getBatchSize());
+        assertEquals(5, gate.getDropped());
+        verify(logger, times(1)).log(eq(Level.WARNING), anyString());
+
+        ArgumentCaptor<List<Event>> batch = ArgumentCaptor.forClass(List.class);
+        gate.flushBatch();
+        verify(executor).callBatch(batch.capture());
+        assertEquals(EventGate.MAX_BATCH_SIZE, batch.getValue().size());
+
+        //The next interval starts with an empty batch, and the dropped count is kept
+        assertFalse(gate.offer(new TestEvent()));
+        assertEquals(1, gate.getBatchSize());
+        assertEquals(5, gate.getDropped());
+    }
+
+    @Test
+    public void stopDiscardsHeldEvents() {
+        EventGate debounce = new EventGate(new ListenerMode(ListenerMode.Type.DEBOUNCE, 50, EventKey.PLAYER), executor);
+        EventGate batch = new EventGate(new ListenerMode(ListenerMode.Type.BATCH, 20, null), executor);
+
+        debounce.offer(move(player()));
+        batch.offer(new TestEvent());
+        debounce.stop();
+        batch.stop();
+
+        assertEquals(0, debounce.getPending());
+        assertEquals(0, batch.getBatchSize());
+        batch.flushBatch();
+        verify(executor, never()).callBatch(any());
+    }
+
+    private Player player() {
+        Player player = mock(Player.class);
+        UUID uuid = UUID.randomUUID();
+        when(player.getUniqueId()).thenReturn(uuid);
+        when(player.getWorld()).thenReturn(world);
+        return player;
+    }
+
+    private Event move(Player player) {
+        return new PlayerMoveEvent(player, new Location(world, 0, 64, 0), new Location(world, 1, 64, 0));
+    }
+
+    private static class TestEvent extends Event {
+
+        private static final HandlerList handlers = new HandlerList();
+
+        @Override
+        public HandlerList getHandlers() {
+            return handlers;
+        }
+    }
+}
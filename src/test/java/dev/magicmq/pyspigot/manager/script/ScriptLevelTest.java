@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2023 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ScriptLevelTest {
+
+    private static Map<String, Integer> getLevels(Map<String, List<String>> dependencies) {
+        Map<String, Integer> levels = new HashMap<>();
+        for (String script : dependencies.keySet()) {
+            ScriptManager.getLevel(script, dependencies, levels, new HashSet<>());
+        }
+        return levels;
+    }
+
+    @Test
+    public void scriptsWithoutDependenciesAreInFirstLevel() {
+        Map<String, Integer> levels = getLevels(Map.of(
+                "a.py", List.of(),
+                "b.py", List.of()));
+
+        assertEquals(0, levels.get("a.py"));
+        assertEquals(0, levels.get("b.py"));
+    }
+
+    @Test
+    public void scriptIsAboveHighestDependency() {
+        Map<String, Integer> levels = getLevels(Map.of(
+                "a.py", List.of(),
+                "b.py", List.of("a.py"),
+                "c.py", List.of("b.py"),
+                "d.py", List.of("a.py", "c.py")));
+
+        assertEquals(0, levels.get("a.py"));
+        assertEquals(1, levels.get("b.py"));
+        assertEquals(2, levels.get("c.py"));
+        assertEquals(3, levels.get("d.py"));
+    }
+
+    @Test
+    public void sharedDependencyIsOnlyCountedOnce() {
+        Map<String, Integer> levels = getLevels(Map.of(
+                "a.py", List.of(),
+                "b.py", List.of("a.py"),
+                "c.py", List.of("a.py"),
+                "d.py", List.of("b.py", "c.py")));
+
+        assertEquals(1, levels.get("b.py"));
+        assertEquals(1, levels.get("c.py"));
+        assertEquals(2, levels.get("d.py"));
+    }
+
+    @Test
+    public void missingDependencyIsIgnored() {
+        Map<String, Integer> levels = getLevels(Map.of(
+                "a.py", List.of("missing.py"),
+                "b.py", List.of("a.py", "missing.py")));
+
+        assertEquals(0, levels.get("a.py"));
+        assertEquals(1, levels.get("b.py"));
+    }
+
+    @Test
+    public void scriptsInCycleHaveNoLevel() {
+        Map<String, Integer> levels = getLevels(Map.of(
+                "a.py", List.of("b.py"),
+                "b.py", List.of("c.py"),
+                "c.py", List.of("a.py"),
+                "d.py", List.of()));
+
+        assertEquals(-1, levels.get("a.py"));
+        assertEquals(-1, levels.get("b.py"));
+        assertEquals(-1, levels.get("c.py"));
+        assertEquals(0, levels.get("d.py"));
+    }
+
+    @Test
+    public void scriptDependingOnItselfHasNoLevel() {
+        Map<String, Integer> levels = getLevels(Map.of("a.py", List.of("a.py")));
+
+        assertEquals(-1, levels.get("a.py"));
+    }
+
+    @Test
+    public void scriptDependingOnCycleHasNoLevel() {
+        Map<String, List<String>> scripts = Map.of(
+                "a.py", List.of("b.py"),
+                "b.py", List.of("a.py"),
+                "c.py", List.of("b.py"),
+                "d.py", List.of("c.py"));
+
+        //Levels are cached along the way, so check starting both from outside and from inside the cycle
+        assertEquals(-1, ScriptManager.getLevel("d.py", scripts, new HashMap<>(), new HashSet<>()));
+        assertEquals(-1, ScriptManager.getLevel("a.py", scripts, new HashMap<>(), new HashSet<>()));
+
+        Map<String, Integer> levels = getLevels(scripts);
+        assertEquals(-1, levels.get("c.py"));
+        assertEquals(-1, levels.get("d.py"));
+    }
+}